@@ -0,0 +1,18 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.comment-tree")
+public class CommentTreeCacheProperties {
+    // Comments held across all cached trees; a post's tree weighs its comment count
+    private long maxComments = 200_000;
+    // Also bounds how long author names and avatars, and writes made on other
+    // instances, take to show up
+    private Duration ttl = Duration.ofMinutes(10);
+}
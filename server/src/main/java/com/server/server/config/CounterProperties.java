@@ -0,0 +1,24 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.counters")
+public class CounterProperties {
+
+    public enum Mode {
+        // Writers update the counter columns of posts directly
+        DIRECT,
+        // Writers add to a random post_counters shard, compacted into posts
+        SHARDED
+    }
+
+    private Mode mode = Mode.SHARDED;
+    // Shard rows per post; more shards spread hot posts over more row locks
+    private int shards = 8;
+    // Posts folded into posts per compaction transaction
+    private int compactBatchSize = 200;
+}
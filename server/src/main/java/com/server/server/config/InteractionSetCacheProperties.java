@@ -0,0 +1,20 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.interaction-sets")
+public class InteractionSetCacheProperties {
+    // Estimated heap taken by all cached sets together
+    private DataSize maxBytes = DataSize.ofMegabytes(64);
+    // Users with more likes (or bookmarks) than this are not cached
+    private int maxIdsPerUser = 200_000;
+    // Bounds staleness from out-of-order write-throughs of one user's toggles
+    private Duration ttl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,41 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.notifications")
+public class NotificationProperties {
+    // Worker threads draining the queue; each owns the recipients hashed to it
+    private int workers = 2;
+    // Notifications waiting per worker; past this the committing thread waits for room
+    private int queueCapacity = 10_000;
+    // Longest a committing thread waits for room before dropping its notification
+    private Duration enqueueTimeout = Duration.ofMillis(50);
+    // Rows per insert batch, each written in its own transaction
+    private int batchSize = 100;
+    // Likes, comments and follows on the same entity fold into an unread row this young
+    private Duration coalesceWindow = Duration.ofHours(1);
+    // A coalesced row is pushed again at most once per interval
+    private Duration pushInterval = Duration.ofSeconds(10);
+    // Unread counters held in memory; entries are dropped whenever a count changes
+    private int unreadCacheSize = 100_000;
+    private Duration unreadCacheTtl = Duration.ofMinutes(10);
+    // Users whose counter each reconciliation run checks against their notifications
+    private int reconcileBatchSize = 1_000;
+
+    // Retention (see NotificationArchiver)
+    // Read notifications older than this move to notifications_archive
+    private Duration readRetention = Duration.ofDays(30);
+    // Archived rows older than this are deleted; zero keeps them
+    private Duration archiveRetention = Duration.ofDays(365);
+    // Rows moved or deleted per transaction; kept small so each holds its locks briefly
+    private int archiveBatchSize = 500;
+    // Sleep between batches, leaving room for the notification writers
+    private Duration archivePause = Duration.ofMillis(100);
+    private int archiveMaxBatches = 50;
+}
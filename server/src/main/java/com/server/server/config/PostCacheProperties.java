@@ -0,0 +1,15 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.post-detail")
+public class PostCacheProperties {
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+}
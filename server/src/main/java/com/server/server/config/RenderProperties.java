@@ -0,0 +1,15 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.render")
+public class RenderProperties {
+    private int wordsPerMinute = 200;
+    private int summaryLength = 200;
+    private int backfillChunkSize = 200;
+    private int backfillThreads = 4;
+}
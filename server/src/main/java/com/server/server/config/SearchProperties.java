@@ -0,0 +1,25 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    public enum Mode {
+        LUCENE,
+        DATABASE
+    }
+
+    // DATABASE keeps the MySQL FULLTEXT query and never opens the index
+    private Mode mode = Mode.LUCENE;
+    private String indexDir = "data/search-index";
+    private int rebuildBatchSize = 500;
+    // Deepest hit (page * size) served; deeper pages come back empty
+    private int maxResultWindow = 1000;
+    private int maxFacetValues = 20;
+    private int snippetLength = 200;
+}
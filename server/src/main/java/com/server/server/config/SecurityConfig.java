@@ -85,6 +85,7 @@ public class SecurityConfig {
                         .requestMatchers("/error").permitAll()
                         // Public endpoints - Posts (read-only: GET requests only)
                         .requestMatchers(HttpMethod.GET, "/api/posts/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/comments/*/replies").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/tags/**").permitAll()
                         // Admin only endpoints
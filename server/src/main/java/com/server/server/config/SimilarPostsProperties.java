@@ -0,0 +1,18 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.similar")
+public class SimilarPostsProperties {
+    // Entries stored per post
+    private int topN = 10;
+    private double tagWeight = 1.0;
+    private double categoryWeight = 0.3;
+    // Newest posts considered per tag of a post, and again for its category
+    private int maxCandidatesPerTag = 200;
+    private int batchSize = 100;
+}
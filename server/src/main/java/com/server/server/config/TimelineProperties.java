@@ -0,0 +1,13 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.timeline")
+public class TimelineProperties {
+    // Entries kept per user; older ones are trimmed and the feed ends there
+    private int maxLength = 800;
+}
@@ -0,0 +1,24 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.trending")
+public class TrendingProperties {
+    private double viewWeight = 1;
+    private double likeWeight = 3;
+    private double commentWeight = 5;
+    private double bookmarkWeight = 0;
+    // Publishing this much later is worth the same as doubling the weighted engagement
+    private Duration halfLife = Duration.ofHours(24);
+    // Only posts published within this window are scored
+    private Duration retention = Duration.ofDays(90);
+    // Deepest rank served by /api/posts/trending
+    private int maxResults = 500;
+    private int batchSize = 500;
+}
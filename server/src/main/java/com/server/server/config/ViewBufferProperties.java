@@ -0,0 +1,33 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.views")
+public class ViewBufferProperties {
+    private int stripes = 16;
+    // A flush starts early once this many distinct views are buffered
+    private int flushThreshold = 5_000;
+    // Views arriving beyond this depth are dropped rather than growing the heap
+    private int maxBuffered = 100_000;
+    // Rows per IN list / JDBC batch, each written in its own transaction
+    private int batchSize = 500;
+
+    // Unique-viewer sketches (see ViewSketchService)
+    // Compound false-positive rate of a post's Bloom filter: a repeat-viewer check
+    // wrongly answering "seen" drops that view
+    private double falsePositiveRate = 0.01;
+    // Viewers the first Bloom stage holds before a larger one is added
+    private int bloomInitialCapacity = 256;
+    // A post's Bloom filter stops growing here (about 6M viewers at the default rate);
+    // kept below the 16MB of the MEDIUMBLOB column it is stored in
+    private DataSize bloomMaxSize = DataSize.ofMegabytes(8);
+    // 2^p HyperLogLog registers per post; standard error about 1.04 / sqrt(2^p)
+    private int hllPrecision = 11;
+    // Posts whose sketches stay in memory
+    private int sketchCacheSize = 10_000;
+}
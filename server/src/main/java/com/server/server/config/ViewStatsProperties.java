@@ -0,0 +1,29 @@
+package com.server.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.view-stats")
+public class ViewStatsProperties {
+    // post_views rows read and rolled up per transaction
+    private int rollupChunkSize = 5_000;
+    // Chunks per run, so a backlog is worked off over several runs instead of
+    // holding the scheduler thread
+    private int rollupMaxChunks = 20;
+    // Raw post_views rows older than this are deleted once rolled up
+    private Duration rawRetention = Duration.ofDays(90);
+    // Hourly buckets older than this are deleted; daily ones are kept
+    private Duration hourlyRetention = Duration.ofDays(180);
+    // Rows per DELETE; kept small so each statement holds its locks briefly
+    private int pruneBatchSize = 1_000;
+    // Sleep between prune batches, leaving room for the view flushes
+    private Duration prunePause = Duration.ofMillis(100);
+    private int pruneMaxBatches = 50;
+    // Widest range /api/posts/{id}/view-stats serves, in buckets
+    private int maxBuckets = 1_000;
+}
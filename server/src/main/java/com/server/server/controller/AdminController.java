@@ -11,8 +11,12 @@ import com.server.server.dto.UpdateTagRequest;
 import com.server.server.dto.category.CategoryDto;
 import com.server.server.dto.category.CreateCategoryRequest;
 import com.server.server.dto.category.UpdateCategoryRequest;
+import com.server.server.repository.PostCounterRepository;
 import com.server.server.repository.PostRepository;
+import com.server.server.repository.PostViewStatsDailyRepository;
 import com.server.server.repository.UserRepository;
+import com.server.server.service.PostRenderService;
+import com.server.server.service.PostSearchService;
 import com.server.server.service.PostService;
 import com.server.server.service.UserService;
 import com.server.server.service.CategoryService;
@@ -41,8 +45,12 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final PostRepository postRepository;
+    private final PostCounterRepository postCounterRepository;
+    private final PostViewStatsDailyRepository viewStatsDailyRepository;
     private final UserService userService;
     private final PostService postService;
+    private final PostRenderService postRenderService;
+    private final PostSearchService postSearchService;
     private final CategoryService categoryService;
     private final TagService tagService;
     private final NotificationService notificationService;
@@ -70,11 +78,12 @@ public class AdminController {
         LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
         stats.put("newUsersThisWeek", userRepository.countByCreatedAtAfter(weekAgo));
         stats.put("newPostsThisWeek", postRepository.countByCreatedAtAfter(weekAgo));
+        stats.put("viewsThisWeek", viewStatsDailyRepository.sumViewsSince(weekAgo.toLocalDate()));
         
         // Total interactions
-        stats.put("totalViews", postRepository.sumViews());
-        stats.put("totalLikes", postRepository.sumLikes());
-        stats.put("totalComments", postRepository.sumComments());
+        stats.put("totalViews", postRepository.sumViews() + postCounterRepository.sumPendingViews());
+        stats.put("totalLikes", postRepository.sumLikes() + postCounterRepository.sumPendingLikes());
+        stats.put("totalComments", postRepository.sumComments() + postCounterRepository.sumPendingComments());
         
         return ResponseEntity.ok(stats);
     }
@@ -203,6 +212,28 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("message", "Post deleted successfully"));
     }
 
+    @PostMapping("/posts/render-backfill")
+    public ResponseEntity<?> startRenderBackfill(@RequestParam(defaultValue = "false") boolean force) {
+        postRenderService.startBackfill(force);
+        return ResponseEntity.accepted().body(postRenderService.getBackfillStatus());
+    }
+
+    @GetMapping("/posts/render-backfill")
+    public ResponseEntity<?> getRenderBackfillStatus() {
+        return ResponseEntity.ok(postRenderService.getBackfillStatus());
+    }
+
+    @PostMapping("/posts/search-index/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        postSearchService.startRebuild();
+        return ResponseEntity.accepted().body(postSearchService.getRebuildStatus());
+    }
+
+    @GetMapping("/posts/search-index")
+    public ResponseEntity<?> getSearchIndexStatus() {
+        return ResponseEntity.ok(postSearchService.getRebuildStatus());
+    }
+
     // ==================== CATEGORY MANAGEMENT ====================
     @PostMapping("/categories")
     public ResponseEntity<CategoryDto> createCategory(@Valid @RequestBody CreateCategoryRequest request) {
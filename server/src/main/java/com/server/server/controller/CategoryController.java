@@ -2,10 +2,12 @@ package com.server.server.controller;
 
 import com.server.server.dto.category.CategoryDto;
 import com.server.server.service.CategoryService;
+import com.server.server.util.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,8 +24,9 @@ public class CategoryController {
 
     @GetMapping
     @Operation(summary = "Get all categories", description = "Get list of all available categories")
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest request) {
+        return HttpCacheUtils.conditional(request, categoryService.getCategoriesVersion(),
+                categoryService::getAllCategories);
     }
 
     @GetMapping("/top")
@@ -35,14 +38,16 @@ public class CategoryController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get category by ID", description = "Get category details by ID")
-    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return HttpCacheUtils.conditional(request, categoryService.getCategoryVersion(id),
+                () -> categoryService.getCategoryById(id));
     }
 
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Get category by slug", description = "Get category details by slug")
-    public ResponseEntity<CategoryDto> getCategoryBySlug(@PathVariable String slug) {
-        return ResponseEntity.ok(categoryService.getCategoryBySlug(slug));
+    public ResponseEntity<CategoryDto> getCategoryBySlug(@PathVariable String slug, WebRequest request) {
+        return HttpCacheUtils.conditional(request, categoryService.getCategoryVersionBySlug(slug),
+                () -> categoryService.getCategoryBySlug(slug));
     }
 
     @PostMapping
@@ -3,6 +3,7 @@ package com.server.server.controller;
 import com.server.server.domain.User;
 import com.server.server.dto.CommentDto;
 import com.server.server.dto.CreateCommentRequest;
+import com.server.server.dto.CursorPage;
 import com.server.server.dto.UpdateCommentRequest;
 import com.server.server.repository.UserRepository;
 import com.server.server.security.UserPrincipal;
@@ -35,6 +36,25 @@ public class CommentController {
         return ResponseEntity.ok(commentService.getCommentsByPostSlug(slug));
     }
     
+    @GetMapping("/posts/{slug}/comments/threads")
+    @Operation(summary = "Get comment threads", description = "Cursor-paginated top-level comments, oldest first, each with its first replies nested (no total count)")
+    public ResponseEntity<CursorPage<CommentDto>> getThreads(
+            @PathVariable String slug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "3") int replies) {
+        return ResponseEntity.ok(commentService.getThreads(slug, cursor, size, replies));
+    }
+    
+    @GetMapping("/comments/{id}/replies")
+    @Operation(summary = "Get comment replies", description = "Cursor-paginated replies below a comment, depth-first and flat (use parentId and depth to place them)")
+    public ResponseEntity<CursorPage<CommentDto>> getReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.getReplies(id, cursor, size));
+    }
+    
     @PostMapping("/posts/{id}/comments")
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(summary = "Create comment", description = "Create a new comment or reply on a post")
@@ -1,9 +1,8 @@
 package com.server.server.controller;
 
-import com.server.server.domain.User;
+import com.server.server.dto.CursorPage;
 import com.server.server.dto.InteractionStatusDto;
 import com.server.server.dto.post.PostListDto;
-import com.server.server.repository.UserRepository;
 import com.server.server.security.UserPrincipal;
 import com.server.server.service.InteractionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,8 +16,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
-import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -27,7 +27,6 @@ import org.springframework.http.HttpStatus;
 public class InteractionController {
     
     private final InteractionService interactionService;
-    private final UserRepository userRepository;
     
     @PostMapping("/posts/{id}/like")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -35,9 +34,7 @@ public class InteractionController {
     public ResponseEntity<InteractionStatusDto> toggleLike(
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal principal) {
-        User user = userRepository.findById(principal.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        return ResponseEntity.ok(interactionService.toggleLike(id, user));
+        return ResponseEntity.ok(interactionService.toggleLike(id, principal.getId()));
     }
     
     @PostMapping("/posts/{id}/bookmark")
@@ -46,9 +43,7 @@ public class InteractionController {
     public ResponseEntity<InteractionStatusDto> toggleBookmark(
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal principal) {
-        User user = userRepository.findById(principal.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        return ResponseEntity.ok(interactionService.toggleBookmark(id, user));
+        return ResponseEntity.ok(interactionService.toggleBookmark(id, principal.getId()));
     }
     
     @GetMapping("/posts/{id}/status")
@@ -57,7 +52,17 @@ public class InteractionController {
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal principal) {
         Long userId = principal != null ? principal.getId() : null;
-        return ResponseEntity.ok(interactionService.getInteractionStatus(id, userId, null));
+        return ResponseEntity.ok(interactionService.getInteractionStatus(id, userId));
+    }
+    
+    @GetMapping("/posts/status")
+    @Operation(summary = "Get interaction statuses", description = "Get like/bookmark status and counts for up to "
+            + InteractionService.MAX_BATCH_STATUS_IDS + " posts, keyed by post id (missing posts are left out)")
+    public ResponseEntity<Map<Long, InteractionStatusDto>> getStatuses(
+            @RequestParam List<Long> ids,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal != null ? principal.getId() : null;
+        return ResponseEntity.ok(interactionService.getInteractionStatuses(ids, userId));
     }
     
     @GetMapping("/me/bookmarks")
@@ -67,12 +72,32 @@ public class InteractionController {
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort) {
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(defaultValue = "false") boolean withStatus) {
         
         String[] sortParams = sort.split(",");
         Sort sortOrder = Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0]);
         Pageable pageable = PageRequest.of(page, size, sortOrder);
         
-        return ResponseEntity.ok(interactionService.getUserBookmarks(principal.getId(), pageable));
+        Page<PostListDto> bookmarks = interactionService.getUserBookmarks(principal.getId(), pageable);
+        if (withStatus) {
+            interactionService.attachStatus(bookmarks.getContent(), principal.getId());
+        }
+        return ResponseEntity.ok(bookmarks);
+    }
+    
+    @GetMapping("/me/bookmarks/scroll")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Scroll my bookmarks", description = "Cursor-paginated bookmarked posts, most recently bookmarked first (no total count)")
+    public ResponseEntity<CursorPage<PostListDto>> scrollMyBookmarks(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus) {
+        CursorPage<PostListDto> bookmarks = interactionService.scrollUserBookmarks(principal.getId(), cursor, size);
+        if (withStatus) {
+            interactionService.attachStatus(bookmarks.getContent(), principal.getId());
+        }
+        return ResponseEntity.ok(bookmarks);
     }
 }
@@ -14,6 +14,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,6 +22,8 @@ import java.util.Map;
 @Tag(name = "Notification", description = "Notification management endpoints")
 public class NotificationController {
 
+    private static final int MAX_MARK_READ_IDS = 500;
+
     private final NotificationService notificationService;
 
     public NotificationController(NotificationService notificationService) {
@@ -74,6 +77,26 @@ public class NotificationController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/read")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Mark several as read", description = "Mark the listed notifications as read in one update and return the new unread count")
+    public ResponseEntity<Map<String, Long>> markAsRead(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestBody List<Long> ids) {
+
+        if (userPrincipal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (ids.size() > MAX_MARK_READ_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        notificationService.markAsRead(ids, userPrincipal.getId());
+        Map<String, Long> response = new HashMap<>();
+        response.put("count", notificationService.getUnreadCount(userPrincipal.getId()));
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/read-all")
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(summary = "Mark all as read", description = "Mark all notifications as read")
@@ -1,13 +1,19 @@
 package com.server.server.controller;
 
 import com.server.server.domain.PostStatus;
+import com.server.server.dto.CursorPage;
 import com.server.server.dto.post.CreatePostRequest;
 import com.server.server.dto.post.PostDto;
 import com.server.server.dto.post.PostListDto;
+import com.server.server.dto.post.PostSearchPage;
 import com.server.server.dto.post.UpdatePostRequest;
+import com.server.server.dto.post.ViewStatsDto;
 import com.server.server.security.UserPrincipal;
+import com.server.server.service.InteractionService;
 import com.server.server.service.PostService;
 import com.server.server.service.FileStorageService;
+import com.server.server.service.ViewStatsService;
+import com.server.server.util.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,12 +25,14 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.springframework.security.access.prepost.PreAuthorize;
 
@@ -35,10 +43,15 @@ public class PostController {
 
     private final PostService postService;
     private final FileStorageService fileStorageService;
+    private final ViewStatsService viewStatsService;
+    private final InteractionService interactionService;
 
-    public PostController(PostService postService, FileStorageService fileStorageService) {
+    public PostController(PostService postService, FileStorageService fileStorageService,
+            ViewStatsService viewStatsService, InteractionService interactionService) {
         this.postService = postService;
         this.fileStorageService = fileStorageService;
+        this.viewStatsService = viewStatsService;
+        this.interactionService = interactionService;
     }
 
     @PostMapping
@@ -92,18 +105,20 @@ public class PostController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get post by ID", description = "Get post details by ID")
-    public ResponseEntity<PostDto> getPostById(@PathVariable Long id) {
-        return ResponseEntity.ok(postService.getPostById(id));
+    public ResponseEntity<PostDto> getPostById(@PathVariable Long id, WebRequest request) {
+        return HttpCacheUtils.conditional(request, postService.getPostVersion(id),
+                () -> postService.getPostById(id));
     }
 
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Get post by slug", description = "Get post details by slug")
-    public ResponseEntity<PostDto> getPostBySlug(@PathVariable String slug) {
-        return ResponseEntity.ok(postService.getPostBySlug(slug));
+    public ResponseEntity<PostDto> getPostBySlug(@PathVariable String slug, WebRequest request) {
+        return HttpCacheUtils.conditional(request, postService.getPostVersionBySlug(slug),
+                () -> postService.getPostBySlug(slug));
     }
 
     @PostMapping("/{id}/view")
-    @Operation(summary = "Increment post view", description = "Increment view count for a post (unique by user/IP)")
+    @Operation(summary = "Increment post view", description = "Record a view of a post (unique by user/IP). Views are buffered and counted on the next flush, within seconds.")
     public ResponseEntity<Void> incrementView(
             @PathVariable Long id,
             @AuthenticationPrincipal UserPrincipal userPrincipal,
@@ -122,15 +137,43 @@ public class PostController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/{id}/view-stats")
+    @PreAuthorize("hasAnyRole('AUTHOR', 'ADMIN')")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get post view statistics", description = "Views per hour or per day from the rollup tables "
+            + "(post author or ADMIN only). Defaults to the last 48 hours or 30 days; the latest minutes are not rolled up yet.")
+    public ResponseEntity<ViewStatsDto> getViewStats(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(defaultValue = "DAILY") ViewStatsDto.Granularity granularity,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        if (userPrincipal == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        boolean admin = userPrincipal.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
+        return ResponseEntity.ok(viewStatsService.getViewStats(id, userPrincipal.getId(), admin, granularity, from, to));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search posts", description = "Search posts by title and content")
-    public ResponseEntity<Page<PostListDto>> searchPosts(
+    @Operation(summary = "Search posts", description = "Search published posts by title, tags, summary, author and content. "
+            + "Returns highlighted snippets and category/tag facet counts; category and tag narrow the results by slug.")
+    public ResponseEntity<PostSearchPage> searchPosts(
             @RequestParam String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String tag,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(postService.searchPosts(q, pageable));
+        PostSearchPage results = postService.searchPosts(q, category, tag, pageable);
+        attachStatus(results.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(results);
     }
 
     @GetMapping("/trending")
@@ -138,13 +181,17 @@ public class PostController {
     public ResponseEntity<Page<PostListDto>> getTrendingPosts(
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
         if (since == null) {
             since = LocalDateTime.now().minusDays(30); // Default to last 30 days
         }
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(postService.getTrendingPosts(since, pageable));
+        Page<PostListDto> posts = postService.getTrendingPosts(since, pageable);
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
     }
 
     @GetMapping("/feed")
@@ -153,14 +200,35 @@ public class PostController {
     public ResponseEntity<Page<PostListDto>> getFeedPosts(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus) {
 
         if (userPrincipal == null) {
             return ResponseEntity.status(401).build();
         }
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(postService.getFeedPosts(userPrincipal.getId(), pageable));
+        Page<PostListDto> posts = postService.getFeedPosts(userPrincipal.getId(), pageable);
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
+    }
+
+    @GetMapping("/feed/scroll")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Scroll feed posts", description = "Cursor-paginated posts from followed authors (no total count)")
+    public ResponseEntity<CursorPage<PostListDto>> scrollFeedPosts(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus) {
+
+        if (userPrincipal == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        CursorPage<PostListDto> posts = postService.scrollFeedPosts(userPrincipal.getId(), cursor, size);
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
     }
 
     @GetMapping("/{id}/similar")
@@ -168,10 +236,14 @@ public class PostController {
     public ResponseEntity<Page<PostListDto>> getSimilarPosts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(postService.getSimilarPosts(id, pageable));
+        Page<PostListDto> posts = postService.getSimilarPosts(id, pageable);
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
     }
 
     @GetMapping
@@ -183,29 +255,50 @@ public class PostController {
             @RequestParam(required = false) String tagSlug,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "publishedAt,desc") String sort) {
+            @RequestParam(defaultValue = "publishedAt,desc") String sort,
+            @RequestParam(defaultValue = "false") boolean withStatus,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
         String[] sortParams = sort.split(",");
         Sort sortOrder = Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0]);
         Pageable pageable = PageRequest.of(page, size, sortOrder);
 
+        Page<PostListDto> posts;
         if (author != null && !author.isEmpty()) {
-            return ResponseEntity.ok(postService.getPostsByAuthorUsername(author, PostStatus.PUBLISHED, pageable));
-        }
-
-        if (categoryId != null) {
-            return ResponseEntity.ok(postService.getPostsByCategory(categoryId, PostStatus.PUBLISHED, pageable));
+            posts = postService.getPostsByAuthorUsername(author, PostStatus.PUBLISHED, pageable);
+        } else if (categoryId != null) {
+            posts = postService.getPostsByCategory(categoryId, PostStatus.PUBLISHED, pageable);
+        } else if (tagId != null) {
+            posts = postService.getPostsByTagId(tagId, PostStatus.PUBLISHED, pageable);
+        } else if (tagSlug != null && !tagSlug.isEmpty()) {
+            posts = postService.getPostsByTagSlug(tagSlug, PostStatus.PUBLISHED, pageable);
+        } else {
+            posts = postService.getPublicPosts(pageable);
         }
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
+    }
 
-        if (tagId != null) {
-            return ResponseEntity.ok(postService.getPostsByTagId(tagId, PostStatus.PUBLISHED, pageable));
-        }
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll public posts", description = "Cursor-paginated public posts, newest first, optionally filtered by category or tag slug (no total count)")
+    public ResponseEntity<CursorPage<PostListDto>> scrollPublicPosts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String tagSlug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withStatus,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        if (tagSlug != null && !tagSlug.isEmpty()) {
-            return ResponseEntity.ok(postService.getPostsByTagSlug(tagSlug, PostStatus.PUBLISHED, pageable));
+        CursorPage<PostListDto> posts;
+        if (categoryId != null) {
+            posts = postService.scrollPostsByCategory(categoryId, PostStatus.PUBLISHED, cursor, size);
+        } else if (tagSlug != null && !tagSlug.isEmpty()) {
+            posts = postService.scrollPostsByTagSlug(tagSlug, PostStatus.PUBLISHED, cursor, size);
+        } else {
+            posts = postService.scrollPublicPosts(cursor, size);
         }
-
-        return ResponseEntity.ok(postService.getPublicPosts(pageable));
+        attachStatus(posts.getContent(), userPrincipal, withStatus);
+        return ResponseEntity.ok(posts);
     }
 
     @GetMapping("/my-posts")
@@ -229,6 +322,22 @@ public class PostController {
         return ResponseEntity.ok(postService.getMyPosts(userPrincipal.getId(), status, pageable));
     }
 
+    @GetMapping("/my-posts/scroll")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Scroll my posts", description = "Cursor-paginated posts of the current user, newest first (no total count)")
+    public ResponseEntity<CursorPage<PostListDto>> scrollMyPosts(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) PostStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        if (userPrincipal == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return ResponseEntity.ok(postService.scrollMyPosts(userPrincipal.getId(), status, cursor, size));
+    }
+
     @PostMapping("/upload-image")
     @PreAuthorize("hasAnyRole('AUTHOR', 'ADMIN')")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -262,4 +371,11 @@ public class PostController {
 
         return ResponseEntity.ok(response);
     }
+
+    // withStatus=true embeds the signed-in caller's liked/bookmarked flags into the cards
+    private void attachStatus(List<PostListDto> cards, UserPrincipal userPrincipal, boolean withStatus) {
+        if (withStatus && userPrincipal != null) {
+            interactionService.attachStatus(cards, userPrincipal.getId());
+        }
+    }
 }
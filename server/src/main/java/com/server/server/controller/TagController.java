@@ -2,11 +2,13 @@ package com.server.server.controller;
 
 import com.server.server.dto.TagDto;
 import com.server.server.service.TagService;
+import com.server.server.util.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,8 +23,10 @@ public class TagController {
     @GetMapping
     @Operation(summary = "Search tags", description = "Search tags by name (autocomplete). Returns all tags if query is empty.")
     public ResponseEntity<List<TagDto>> searchTags(
-            @RequestParam(required = false) String query) {
-        return ResponseEntity.ok(tagService.searchTags(query));
+            @RequestParam(required = false) String query,
+            WebRequest request) {
+        return HttpCacheUtils.conditional(request, tagService.getTagsVersion(),
+                () -> tagService.searchTags(query));
     }
 
     @GetMapping("/top")
@@ -35,6 +35,17 @@ public class Comment {
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> children = new ArrayList<>();
     
+    // Top-level comment of the thread; null on top-level comments
+    @Column(name = "root_id")
+    private Long rootId;
+    
+    @Column(nullable = false)
+    private int depth;
+    
+    // Ancestor ids down to this comment, see CommentService#pathSegment
+    @Column(nullable = false, length = 2000)
+    private String path;
+    
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
     
@@ -36,6 +36,14 @@ public class Notification {
     @Column(columnDefinition = "TEXT")
     private String message;
 
+    // Actors folded into this row by coalescing, the latest one being actor
+    @Column(name = "actor_count", nullable = false)
+    private int actorCount = 1;
+
+    // Latest actors, newest first, comma-separated
+    @Column(name = "recent_actor_ids")
+    private String recentActorIds;
+
     @Column(name = "is_read")
     private boolean isRead = false;
 
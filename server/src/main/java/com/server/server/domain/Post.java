@@ -18,7 +18,10 @@ import java.util.Set;
         @Index(name = "idx_slug", columnList = "slug"),
         @Index(name = "idx_status", columnList = "status"),
         @Index(name = "idx_published_at", columnList = "published_at"),
-        @Index(name = "idx_author_status", columnList = "author_id, status")
+        @Index(name = "idx_author_status", columnList = "author_id, status"),
+        @Index(name = "idx_posts_status_published", columnList = "status, published_at, id"),
+        @Index(name = "idx_posts_category_status_published", columnList = "category_id, status, published_at, id"),
+        @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id")
 })
 @Data
 @NoArgsConstructor
@@ -50,11 +53,15 @@ public class Post {
     @Column(columnDefinition = "TEXT")
     private String summary;
 
-    @Column(name = "content_md", columnDefinition = "TEXT")
-    private String content;
+    // True while summary is the render stage's excerpt rather than author-written
+    @Column(name = "summary_generated", nullable = false)
+    private Boolean summaryGenerated = false;
 
-    @Column(name = "content_html", columnDefinition = "TEXT")
-    private String contentHtml;
+    @Column(name = "word_count", nullable = false)
+    private Integer wordCount = 0;
+
+    @Column(name = "reading_time_minutes", nullable = false)
+    private Integer readingTimeMinutes = 0;
 
     @Column(name = "cover_image_url", length = 500)
     private String coverImageUrl;
@@ -0,0 +1,37 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Markdown and rendered HTML of a post, kept 1:1 with {@link Post} in its own
+ * table so the hot {@code posts} row stays narrow. Loaded only for detail reads
+ * and writes.
+ */
+@Entity
+@Table(name = "post_bodies")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostBody {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(name = "content_md", columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "content_html", columnDefinition = "TEXT")
+    private String contentHtml;
+
+    // SHA-256 of content at the last render; null until rendered
+    @Column(name = "content_hash", columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    public PostBody(Long postId) {
+        this.postId = postId;
+    }
+}
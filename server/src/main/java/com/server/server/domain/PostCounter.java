@@ -0,0 +1,37 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One shard of a post's pending counter deltas; the post's counts are its own
+ * columns plus the sum over its shards.
+ */
+@Entity
+@Table(name = "post_counters")
+@IdClass(PostCounterId.class)
+@Data
+@NoArgsConstructor
+public class PostCounter {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Long views = 0L;
+
+    @Column(name = "likes_count", nullable = false)
+    private Integer likesCount = 0;
+
+    @Column(name = "comments_count", nullable = false)
+    private Integer commentsCount = 0;
+
+    @Column(name = "bookmarks_count", nullable = false)
+    private Integer bookmarksCount = 0;
+}
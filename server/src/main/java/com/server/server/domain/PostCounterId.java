@@ -0,0 +1,15 @@
+package com.server.server.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCounterId implements Serializable {
+    private Long postId;
+    private Integer shard;
+}
@@ -0,0 +1,34 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a post's precomputed similar-posts list, ranked from 0.
+ */
+@Entity
+@Table(name = "post_similarities", indexes = {
+        @Index(name = "idx_similarities_similar", columnList = "similar_post_id")
+})
+@IdClass(PostSimilarityId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSimilarity {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Column(name = "rank_no")
+    private Integer rankNo;
+
+    @Column(name = "similar_post_id", nullable = false)
+    private Long similarPostId;
+
+    @Column(nullable = false)
+    private Double score;
+}
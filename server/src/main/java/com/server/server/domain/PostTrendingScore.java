@@ -0,0 +1,46 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed trending score of a published post, together with the counter
+ * values it was computed from.
+ */
+@Entity
+@Table(name = "post_trending_score", indexes = {
+        @Index(name = "idx_trending_score", columnList = "score, post_id"),
+        @Index(name = "idx_trending_published", columnList = "published_at")
+})
+@Data
+@NoArgsConstructor
+public class PostTrendingScore {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "published_at", nullable = false)
+    private LocalDateTime publishedAt;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(name = "likes_count", nullable = false)
+    private Integer likesCount;
+
+    @Column(name = "comments_count", nullable = false)
+    private Integer commentsCount;
+
+    @Column(name = "bookmarks_count", nullable = false)
+    private Integer bookmarksCount;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
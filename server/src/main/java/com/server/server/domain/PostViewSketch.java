@@ -0,0 +1,34 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted unique-viewer sketches of a post: a serialised scalable Bloom filter
+ * used for view dedup and a HyperLogLog for the unique-visitor estimate.
+ */
+@Entity
+@Table(name = "post_view_sketches")
+@Data
+@NoArgsConstructor
+public class PostViewSketch {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] bloom;
+
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] hll;
+
+    @Column(name = "unique_visitors", nullable = false)
+    private Long uniqueVisitors;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
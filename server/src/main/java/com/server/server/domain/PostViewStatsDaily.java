@@ -0,0 +1,36 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Views of a post within one day, rolled up from {@code post_views}.
+ */
+@Entity
+@Table(name = "post_view_stats_daily", indexes = {
+        @Index(name = "idx_view_stats_daily_date", columnList = "view_date")
+})
+@IdClass(PostViewStatsDailyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostViewStatsDaily {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Column(name = "view_date")
+    private LocalDate viewDate;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(name = "signed_in_views", nullable = false)
+    private Long signedInViews;
+}
@@ -0,0 +1,16 @@
+package com.server.server.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostViewStatsDailyId implements Serializable {
+    private Long postId;
+    private LocalDate viewDate;
+}
@@ -0,0 +1,36 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Views of a post within one clock hour, rolled up from {@code post_views}.
+ */
+@Entity
+@Table(name = "post_view_stats_hourly", indexes = {
+        @Index(name = "idx_view_stats_hourly_bucket", columnList = "bucket_start")
+})
+@IdClass(PostViewStatsHourlyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostViewStatsHourly {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long views;
+
+    @Column(name = "signed_in_views", nullable = false)
+    private Long signedInViews;
+}
@@ -0,0 +1,39 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post pushed into a reader's home timeline. Plain id columns rather than
+ * associations: rows are written and read in bulk by native queries only.
+ */
+@Entity
+@Table(name = "user_timelines", indexes = {
+        @Index(name = "idx_timeline_user_published", columnList = "user_id, published_at, post_id"),
+        @Index(name = "idx_timeline_user_author", columnList = "user_id, author_id"),
+        @Index(name = "idx_timeline_post", columnList = "post_id")
+})
+@IdClass(TimelineEntryId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    @Column(name = "published_at", nullable = false)
+    private LocalDateTime publishedAt;
+}
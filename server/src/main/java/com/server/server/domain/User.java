@@ -79,6 +79,11 @@ public class User {
     @Builder.Default
     private Boolean emailVerified = false;
 
+    // Maintained by UnreadNotificationCounter with direct updates, never through the entity
+    @Column(name = "unread_notifications", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int unreadNotifications;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
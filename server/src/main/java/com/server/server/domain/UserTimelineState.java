@@ -0,0 +1,27 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a user whose home timeline has been materialized. Users without a row
+ * are read through the follows join until their timeline is built.
+ */
+@Entity
+@Table(name = "user_timeline_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTimelineState {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "materialized_at", nullable = false)
+    private LocalDateTime materializedAt;
+}
@@ -0,0 +1,31 @@
+package com.server.server.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a rollup over an append-only table: ids up to {@code lastId} are
+ * counted, and the current pass reads no further than {@code pendingMaxId}.
+ */
+@Entity
+@Table(name = "view_rollup_state")
+@Data
+@NoArgsConstructor
+public class ViewRollupState {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "pending_max_id", nullable = false)
+    private Long pendingMaxId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -19,5 +19,9 @@ public class CommentDto {
     private String content;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private int depth;
+    // Thread pages only: set when the thread has replies beyond those nested here
+    private boolean hasMoreReplies;
+    private String repliesCursor;
     private List<CommentDto> children = new ArrayList<>();
 }
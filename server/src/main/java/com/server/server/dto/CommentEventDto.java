@@ -0,0 +1,29 @@
+package com.server.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed on {@code /topic/posts/{postId}/comments} after a comment write commits.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentEventDto {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private Type type;
+    private Long postId;
+    private Long commentId;
+    private Long parentId;
+    // The comment as created or edited, without replies; null on DELETED
+    private CommentDto comment;
+    // DELETED only: the comment plus all of its replies
+    private int deletedCount;
+}
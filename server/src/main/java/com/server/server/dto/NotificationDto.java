@@ -2,6 +2,7 @@ package com.server.server.dto;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class NotificationDto {
@@ -15,4 +16,7 @@ public class NotificationDto {
     private String actorName;
     private String actorUsername;
     private String actorAvatarUrl;
+    // Coalesced notifications: actors folded in, and display names of the latest few
+    private int actorCount;
+    private List<String> recentActorNames;
 }
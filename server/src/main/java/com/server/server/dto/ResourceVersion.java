@@ -0,0 +1,17 @@
+package com.server.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validators for a conditional GET: a strong ETag and the Last-Modified time,
+ * computed without loading or mapping the resource itself.
+ */
+@Data
+@AllArgsConstructor
+public class ResourceVersion {
+    private String etag;
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,21 @@
+package com.server.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed on {@code /user/queue/notifications} whenever the recipient's unread
+ * count changes; {@code type} tells it apart from a {@link NotificationDto}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDto {
+    private String type = "UNREAD_COUNT";
+    private long count;
+
+    public UnreadCountDto(long count) {
+        this.count = count;
+    }
+}
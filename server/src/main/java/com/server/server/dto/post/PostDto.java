@@ -22,9 +22,14 @@ public class PostDto {
     private String summary;
     private Set<TagDto> tags;
     private String content;
+    private String contentHtml;
+    private Integer wordCount;
+    private Integer readingTimeMinutes;
     private String coverImageUrl;
     private PostStatus status;
     private Long views;
+    // HyperLogLog estimate, about 2% error; absent until the post's first views are flushed
+    private Long uniqueVisitors;
     private Integer likesCount;
     private Integer commentsCount;
     private Integer bookmarksCount;
@@ -3,11 +3,13 @@ package com.server.server.dto.post;
 import com.server.server.domain.PostStatus;
 import com.server.server.dto.TagDto;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
+@NoArgsConstructor
 public class PostListDto {
     private Long id;
     private String authorUsername;
@@ -23,7 +25,41 @@ public class PostListDto {
     private Integer likesCount;
     private Integer commentsCount;
     private Integer bookmarksCount;
+    private Integer readingTimeMinutes;
     private Set<TagDto> tags;
     private LocalDateTime publishedAt;
     private LocalDateTime createdAt;
+    // Search hits only: matched terms wrapped in <mark>, HTML-escaped otherwise
+    private String titleHighlight;
+    private String snippet;
+    // Caller's flags, set only when a signed-in caller asks for withStatus; null otherwise
+    private Boolean liked;
+    private Boolean bookmarked;
+
+    /**
+     * Constructor projection used by list queries: selects only the card columns,
+     * never the post body. Tags are attached by a separate batched lookup.
+     */
+    public PostListDto(Long id, String authorUsername, String authorDisplayName, String authorAvatarUrl,
+            String categoryName, String title, String summary, String slug, String coverImageUrl,
+            PostStatus status, Long views, Integer likesCount, Integer commentsCount, Integer bookmarksCount,
+            Integer readingTimeMinutes, LocalDateTime publishedAt, LocalDateTime createdAt) {
+        this.id = id;
+        this.authorUsername = authorUsername;
+        this.authorDisplayName = authorDisplayName;
+        this.authorAvatarUrl = authorAvatarUrl;
+        this.categoryName = categoryName;
+        this.title = title;
+        this.summary = summary;
+        this.slug = slug;
+        this.coverImageUrl = coverImageUrl;
+        this.status = status;
+        this.views = views;
+        this.likesCount = likesCount;
+        this.commentsCount = commentsCount;
+        this.bookmarksCount = bookmarksCount;
+        this.readingTimeMinutes = readingTimeMinutes;
+        this.publishedAt = publishedAt;
+        this.createdAt = createdAt;
+    }
 }
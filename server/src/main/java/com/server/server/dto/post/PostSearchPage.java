@@ -0,0 +1,25 @@
+package com.server.server.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search results: the page fields match the serialised {@code Page} used by the
+ * other list endpoints, plus facet counts ("category", "tag") over all hits.
+ * Facets are empty when the database search mode served the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSearchPage {
+    private List<PostListDto> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private Map<String, List<SearchFacetDto>> facets;
+}
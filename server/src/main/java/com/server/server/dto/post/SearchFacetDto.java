@@ -0,0 +1,14 @@
+package com.server.server.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetDto {
+    // Category or tag slug, usable as the matching filter parameter
+    private String value;
+    private long count;
+}
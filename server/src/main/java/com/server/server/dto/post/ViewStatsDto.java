@@ -0,0 +1,41 @@
+package com.server.server.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * View counts of a post per hour or per day, read from the rollup tables. Buckets
+ * without views are omitted, and the latest few minutes are not rolled up yet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewStatsDto {
+
+    public enum Granularity {
+        HOURLY,
+        DAILY
+    }
+
+    private Long postId;
+    private Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long totalViews;
+    private long signedInViews;
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // Start of the hour, or midnight of the day
+        private LocalDateTime start;
+        private long views;
+        private long signedInViews;
+    }
+}
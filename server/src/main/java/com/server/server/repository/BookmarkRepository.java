@@ -10,6 +10,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,16 +20,39 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, BookmarkId>
     
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Bookmark b WHERE b.post.id = :postId AND b.user.id = :userId")
     boolean existsByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // The subset of postIds the user has bookmarked
+    @Query("SELECT b.post.id FROM Bookmark b WHERE b.user.id = :userId AND b.post.id IN :postIds")
+    List<Long> findPostIdsByUserIdAndPostIdIn(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
     
     @Query("SELECT b FROM Bookmark b WHERE b.post.id = :postId AND b.user.id = :userId")
     Optional<Bookmark> findByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
     
     @Modifying
     @Query("DELETE FROM Bookmark b WHERE b.post.id = :postId AND b.user.id = :userId")
-    void deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // Relies on the (user_id, post_id) key: a concurrent duplicate inserts nothing and returns 0
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO bookmarks (user_id, post_id, created_at) VALUES (:userId, :postId, :createdAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("postId") Long postId, @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt);
+    
+    @Query(value = "SELECT b.post.id FROM Bookmark b WHERE b.user.id = :userId",
+            countQuery = "SELECT COUNT(b) FROM Bookmark b WHERE b.user.id = :userId")
+    Page<Long> findPostIdsByUserId(@Param("userId") Long userId, Pageable pageable);
     
-    @Query("SELECT b FROM Bookmark b JOIN FETCH b.post p LEFT JOIN FETCH p.author LEFT JOIN FETCH p.category WHERE b.user.id = :userId")
-    Page<Bookmark> findByUserIdWithPost(@Param("userId") Long userId, Pageable pageable);
+    // Keyset scan over a user's bookmarks, newest first: [postId, bookmarkCreatedAt].
+    // Callers pass PageRequest.of(0, size + 1)
+    @Query("SELECT b.post.id, b.createdAt FROM Bookmark b " +
+            "WHERE b.user.id = :userId AND (b.createdAt < :ts OR (b.createdAt = :ts AND b.post.id < :postId)) " +
+            "ORDER BY b.createdAt DESC, b.post.id DESC")
+    List<Object[]> findPostIdsByUserIdBefore(
+            @Param("userId") Long userId,
+            @Param("ts") LocalDateTime ts,
+            @Param("postId") Long postId,
+            Pageable pageable);
     
     @Query("SELECT COUNT(b) FROM Bookmark b WHERE b.post.id = :postId")
     long countByPostId(@Param("postId") Long postId);
@@ -4,6 +4,7 @@ import com.server.server.domain.Category;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,6 +18,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
+    // Validators for conditional GETs; the count catches deletes that leave MAX(updatedAt) unchanged
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Category c")
+    List<Object[]> findCollectionVersion();
+
+    @Query("SELECT c.id, c.updatedAt FROM Category c WHERE c.id = :id")
+    List<Object[]> findVersionRowById(@Param("id") Long id);
+
+    @Query("SELECT c.id, c.updatedAt FROM Category c WHERE c.slug = :slug")
+    List<Object[]> findVersionRowBySlug(@Param("slug") String slug);
+
     @Query("SELECT c, COUNT(p) FROM Category c LEFT JOIN Post p ON p.category = c AND p.status = 'PUBLISHED' GROUP BY c ORDER BY COUNT(p) DESC")
     List<Object[]> findTopCategoriesByPostCount(Pageable pageable);
 }
@@ -1,11 +1,15 @@
 package com.server.server.repository;
 
 import com.server.server.domain.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,6 +21,60 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.author WHERE c.post.slug = :slug ORDER BY c.createdAt ASC")
     List<Comment> findByPostSlugWithAuthor(@Param("slug") String slug);
     
+    // Keyset scan over a post's top-level comments, oldest first.
+    // Callers pass PageRequest.of(0, size + 1)
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.slug = :slug AND c.depth = 0 " +
+            "AND (c.createdAt > :ts OR (c.createdAt = :ts AND c.id > :id)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findThreadsByPostSlugAfter(
+            @Param("slug") String slug,
+            @Param("ts") LocalDateTime ts,
+            @Param("id") Long id,
+            Pageable pageable);
+    
+    // Ids of the first :limit replies of each thread in path (depth-first) order
+    @Query(value = "SELECT id FROM (" +
+            "SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.root_id ORDER BY c.path) AS rn " +
+            "FROM comments c WHERE c.root_id IN (:rootIds)) r WHERE r.rn <= :limit",
+            nativeQuery = true)
+    List<Long> findFirstReplyIds(@Param("rootIds") Collection<Long> rootIds, @Param("limit") int limit);
+    
+    // Replies below a comment, in path order, after a path position: a range read on
+    // idx_comments_root_path bounded by the comment's own path prefix.
+    // Callers pass PageRequest.of(0, size + 1)
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.rootId = :rootId " +
+            "AND c.path > :after AND c.path < :end ORDER BY c.path ASC")
+    List<Comment> findRepliesInPathRange(
+            @Param("rootId") Long rootId,
+            @Param("after") String after,
+            @Param("end") String end,
+            Pageable pageable);
+    
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids ORDER BY c.path ASC")
+    List<Comment> findByIdInWithAuthor(@Param("ids") Collection<Long> ids);
+    
+    // Completes a new comment's path once the insert has assigned its id. A bulk update, so
+    // @PreUpdate does not run, and updated_at is assigned to itself so ON UPDATE leaves it too
+    @Modifying
+    @Query("UPDATE Comment c SET c.path = :path, c.updatedAt = c.updatedAt WHERE c.id = :id")
+    int updatePath(@Param("id") Long id, @Param("path") String path);
+    
+    // Replies below a comment at any depth: its path range within the thread
+    @Query("SELECT COUNT(c) FROM Comment c WHERE c.rootId = :rootId AND c.path > :path AND c.path < :end")
+    long countSubtreeReplies(@Param("rootId") Long rootId, @Param("path") String path, @Param("end") String end);
+    
+    // Deepest paths first, so every row goes after its own replies and no FK cascade runs
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "DELETE FROM comments WHERE root_id = :rootId AND path > :path AND path < :end " +
+            "ORDER BY path DESC",
+            nativeQuery = true)
+    int deleteSubtreeReplies(@Param("rootId") Long rootId, @Param("path") String path, @Param("end") String end);
+    
+    // Bulk delete of one row: unlike delete(entity), does not load and cascade through children
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.id = :id")
+    int deleteRowById(@Param("id") Long id);
+    
     long countByPostId(Long postId);
     
     @Query("SELECT COUNT(c) FROM Comment c WHERE c.parent.id = :parentId")
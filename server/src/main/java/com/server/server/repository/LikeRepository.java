@@ -8,6 +8,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,13 +18,24 @@ public interface LikeRepository extends JpaRepository<Like, LikeId> {
     
     @Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Like l WHERE l.post.id = :postId AND l.user.id = :userId")
     boolean existsByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // The subset of postIds the user has liked
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findPostIdsByUserIdAndPostIdIn(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
     
     @Query("SELECT l FROM Like l WHERE l.post.id = :postId AND l.user.id = :userId")
     Optional<Like> findByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
     
     @Modifying
     @Query("DELETE FROM Like l WHERE l.post.id = :postId AND l.user.id = :userId")
-    void deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    // Relies on the (user_id, post_id) key: a concurrent duplicate inserts nothing and returns 0
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO likes (user_id, post_id, created_at) VALUES (:userId, :postId, :createdAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("postId") Long postId, @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt);
     
     @Query("SELECT COUNT(l) FROM Like l WHERE l.post.id = :postId")
     long countByPostId(@Param("postId") Long postId);
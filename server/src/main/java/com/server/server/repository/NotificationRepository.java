@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     Page<Notification> findByRecipientIdOrderByCreatedAtDesc(Long recipientId, Pageable pageable);
@@ -16,6 +18,11 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     long countByRecipientIdAndIsReadFalse(Long recipientId);
 
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId")
-    void markAllAsRead(@Param("recipientId") Long recipientId);
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId AND n.isRead = false")
+    int markAllAsRead(@Param("recipientId") Long recipientId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+            "WHERE n.recipient.id = :recipientId AND n.id IN :ids AND n.isRead = false")
+    int markAsRead(@Param("ids") Collection<Long> ids, @Param("recipientId") Long recipientId);
 }
@@ -0,0 +1,20 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostBody;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostBodyRepository extends JpaRepository<PostBody, Long> {
+
+    // Render backfill walks the table in id order; unless forced, only bodies
+    // that were never rendered are selected
+    @Query("SELECT b.postId FROM PostBody b WHERE b.postId > :afterId " +
+            "AND (:force = true OR b.contentHash IS NULL) ORDER BY b.postId")
+    List<Long> findIdsForRender(@Param("afterId") Long afterId, @Param("force") boolean force, Pageable pageable);
+}
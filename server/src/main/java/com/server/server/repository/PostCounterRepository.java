@@ -0,0 +1,21 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostCounter;
+import com.server.server.domain.PostCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PostCounterRepository extends JpaRepository<PostCounter, PostCounterId> {
+
+    // Not yet compacted into posts; added to the posts sums for site-wide totals
+    @Query("SELECT COALESCE(SUM(c.views), 0) FROM PostCounter c")
+    Long sumPendingViews();
+
+    @Query("SELECT COALESCE(SUM(c.likesCount), 0) FROM PostCounter c")
+    Long sumPendingLikes();
+
+    @Query("SELECT COALESCE(SUM(c.commentsCount), 0) FROM PostCounter c")
+    Long sumPendingComments();
+}
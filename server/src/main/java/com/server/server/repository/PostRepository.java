@@ -2,6 +2,7 @@ package com.server.server.repository;
 
 import com.server.server.domain.Post;
 import com.server.server.domain.PostStatus;
+import com.server.server.dto.post.PostListDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,10 +10,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import jakarta.persistence.LockModeType;
-import org.springframework.data.jpa.repository.Lock;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
 
@@ -28,63 +29,177 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
         boolean existsBySlug(String slug);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByStatus(PostStatus status, Pageable pageable);
+        @Query("SELECT p.id FROM Post p WHERE p.slug = :slug")
+        Optional<Long> findIdBySlug(@Param("slug") String slug);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByStatusNot(PostStatus status, Pageable pageable);
+        /**
+         * Hydrates one page of posts as list cards. List queries page over post ids
+         * first (the {@code find...Ids} methods below), then load only the columns
+         * {@link PostListDto} needs, so neither the to-many {@code tags} fetch nor the
+         * body TEXT columns are ever read for a listing.
+         */
+        @Query("SELECT new com.server.server.dto.post.PostListDto(" +
+                        "p.id, a.username, a.displayName, a.avatarUrl, c.name, p.title, p.summary, p.slug, " +
+                        "p.coverImageUrl, p.status, p.views, p.likesCount, p.commentsCount, p.bookmarksCount, " +
+                        "p.readingTimeMinutes, p.publishedAt, p.createdAt) " +
+                        "FROM Post p JOIN p.author a LEFT JOIN p.category c WHERE p.id IN :ids")
+        List<PostListDto> findListDtosByIdIn(@Param("ids") Collection<Long> ids);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByAuthorIdAndStatus(Long authorId, PostStatus status, Pageable pageable);
+        // Validator columns for conditional GETs: [id, updatedAt, views, likes, comments, bookmarks]
+        @Query("SELECT p.id, p.updatedAt, p.views, p.likesCount, p.commentsCount, p.bookmarksCount " +
+                        "FROM Post p WHERE p.id = :id")
+        List<Object[]> findVersionRowById(@Param("id") Long id);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByAuthorId(Long authorId, Pageable pageable);
+        @Query("SELECT p.id, p.updatedAt, p.views, p.likesCount, p.commentsCount, p.bookmarksCount " +
+                        "FROM Post p WHERE p.slug = :slug")
+        List<Object[]> findVersionRowBySlug(@Param("slug") String slug);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByAuthorUsernameAndStatus(String username, PostStatus status, Pageable pageable);
+        // Tags for a page of posts in one query: [postId, tagId, name, slug, description]
+        @Query("SELECT p.id, t.id, t.name, t.slug, t.description FROM Post p JOIN p.tags t WHERE p.id IN :ids")
+        List<Object[]> findTagRowsByPostIdIn(@Param("ids") Collection<Long> ids);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        Page<Post> findByCategoryIdAndStatus(Long categoryId, PostStatus status, Pageable pageable);
+        @Query(value = "SELECT p.id FROM Post p WHERE p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = :status")
+        Page<Long> findIdsByStatus(@Param("status") PostStatus status, Pageable pageable);
 
-        // Find posts by tag ID
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT DISTINCT p FROM Post p JOIN p.tags t WHERE t.id = :tagId AND p.status = :status")
-        Page<Post> findByTagIdAndStatus(
+        @Query(value = "SELECT p.id FROM Post p WHERE p.status <> :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status <> :status")
+        Page<Long> findIdsByStatusNot(@Param("status") PostStatus status, Pageable pageable);
+
+        @Query(value = "SELECT p.id FROM Post p WHERE p.author.id = :authorId AND p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId AND p.status = :status")
+        Page<Long> findIdsByAuthorIdAndStatus(
+                        @Param("authorId") Long authorId,
+                        @Param("status") PostStatus status,
+                        Pageable pageable);
+
+        @Query(value = "SELECT p.id FROM Post p WHERE p.author.id = :authorId",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId")
+        Page<Long> findIdsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+        @Query(value = "SELECT p.id FROM Post p WHERE p.author.username = :username AND p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.username = :username AND p.status = :status")
+        Page<Long> findIdsByAuthorUsernameAndStatus(
+                        @Param("username") String username,
+                        @Param("status") PostStatus status,
+                        Pageable pageable);
+
+        @Query(value = "SELECT p.id FROM Post p WHERE p.category.id = :categoryId AND p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.category.id = :categoryId AND p.status = :status")
+        Page<Long> findIdsByCategoryIdAndStatus(
+                        @Param("categoryId") Long categoryId,
+                        @Param("status") PostStatus status,
+                        Pageable pageable);
+
+        // Find posts by tag ID (post_tags is unique per pair, so the join yields one row per post)
+        @Query(value = "SELECT p.id FROM Post p JOIN p.tags t WHERE t.id = :tagId AND p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tags t WHERE t.id = :tagId AND p.status = :status")
+        Page<Long> findIdsByTagIdAndStatus(
                         @Param("tagId") Long tagId,
                         @Param("status") PostStatus status,
                         Pageable pageable);
 
         // Find posts by tag slug
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT DISTINCT p FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.status = :status")
-        Page<Post> findByTagSlugAndStatus(
+        @Query(value = "SELECT p.id FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.status = :status",
+                        countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.status = :status")
+        Page<Long> findIdsByTagSlugAndStatus(
                         @Param("tagSlug") String tagSlug,
                         @Param("status") PostStatus status,
                         Pageable pageable);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND " +
-                        "(:status IS NULL OR p.status = :status)")
-        Page<Post> findByAuthorIdAndOptionalStatus(
+        // Keyset (cursor) scans: newest first, ties broken by id, no count query.
+        // Callers pass PageRequest.of(0, size + 1) to detect whether a next page exists.
+        @Query("SELECT p.id FROM Post p WHERE p.status = :status " +
+                        "AND (p.publishedAt < :ts OR (p.publishedAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findIdsByStatusBefore(
+                        @Param("status") PostStatus status,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.category.id = :categoryId AND p.status = :status " +
+                        "AND (p.publishedAt < :ts OR (p.publishedAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findIdsByCategoryIdAndStatusBefore(
+                        @Param("categoryId") Long categoryId,
+                        @Param("status") PostStatus status,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.status = :status " +
+                        "AND (p.publishedAt < :ts OR (p.publishedAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findIdsByTagSlugAndStatusBefore(
+                        @Param("tagSlug") String tagSlug,
+                        @Param("status") PostStatus status,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.author.id IN " +
+                        "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+                        "AND (p.publishedAt < :ts OR (p.publishedAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findFeedPostIdsBefore(
+                        @Param("userId") Long userId,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        // Author dashboards include drafts, which have no publishedAt, so they scan by createdAt
+        @Query("SELECT p.id FROM Post p WHERE p.author.id = :authorId " +
+                        "AND (p.createdAt < :ts OR (p.createdAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Long> findIdsByAuthorIdBefore(
+                        @Param("authorId") Long authorId,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.author.id = :authorId AND p.status = :status " +
+                        "AND (p.createdAt < :ts OR (p.createdAt = :ts AND p.id < :id)) " +
+                        "ORDER BY p.createdAt DESC, p.id DESC")
+        List<Long> findIdsByAuthorIdAndStatusBefore(
                         @Param("authorId") Long authorId,
                         @Param("status") PostStatus status,
+                        @Param("ts") LocalDateTime ts,
+                        @Param("id") Long id,
                         Pageable pageable);
 
-        @Lock(LockModeType.PESSIMISTIC_WRITE)
-        @Query("SELECT p FROM Post p WHERE p.id = :id")
-        Optional<Post> findByIdWithLock(@Param("id") Long id);
+        // [likesCount, bookmarksCount, commentsCount, authorId, liked, bookmarked] in one read,
+        // counts including uncompacted post_counters shards; the flags are false for a null userId
+        @Query(value = "SELECT p.likes_count + COALESCE((SELECT SUM(c.likes_count) FROM post_counters c WHERE c.post_id = p.id), 0), " +
+                        "p.bookmarks_count + COALESCE((SELECT SUM(c.bookmarks_count) FROM post_counters c WHERE c.post_id = p.id), 0), " +
+                        "p.comments_count + COALESCE((SELECT SUM(c.comments_count) FROM post_counters c WHERE c.post_id = p.id), 0), " +
+                        "p.author_id, " +
+                        "EXISTS (SELECT 1 FROM likes l WHERE l.post_id = p.id AND l.user_id = :userId), " +
+                        "EXISTS (SELECT 1 FROM bookmarks b WHERE b.post_id = p.id AND b.user_id = :userId) " +
+                        "FROM posts p WHERE p.id = :postId",
+                        nativeQuery = true)
+        List<Object[]> findInteractionStatus(@Param("postId") Long postId, @Param("userId") Long userId);
+
+        // [postId, likesCount, bookmarksCount, commentsCount] of several posts, counted as above
+        @Query(value = "SELECT p.id, " +
+                        "p.likes_count + COALESCE((SELECT SUM(c.likes_count) FROM post_counters c WHERE c.post_id = p.id), 0), " +
+                        "p.bookmarks_count + COALESCE((SELECT SUM(c.bookmarks_count) FROM post_counters c WHERE c.post_id = p.id), 0), " +
+                        "p.comments_count + COALESCE((SELECT SUM(c.comments_count) FROM post_counters c WHERE c.post_id = p.id), 0) " +
+                        "FROM posts p WHERE p.id IN (:ids)",
+                        nativeQuery = true)
+        List<Object[]> findInteractionCounts(@Param("ids") Collection<Long> ids);
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
         @Query("UPDATE Post p SET p.likesCount = p.likesCount + 1 WHERE p.id = :postId")
-        void incrementLikesCount(@Param("postId") Long postId);
+        int incrementLikesCount(@Param("postId") Long postId);
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
         @Query("UPDATE Post p SET p.likesCount = p.likesCount - 1 WHERE p.id = :postId AND p.likesCount > 0")
         void decrementLikesCount(@Param("postId") Long postId);
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
-        @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + 1 WHERE p.id = :postId")
-        void incrementCommentsCount(@Param("postId") Long postId);
+        @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :count WHERE p.id = :postId")
+        int incrementCommentsCount(@Param("postId") Long postId, @Param("count") int count);
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
         @Query("UPDATE Post p SET p.commentsCount = p.commentsCount - :count WHERE p.id = :postId AND p.commentsCount >= :count")
@@ -92,42 +207,95 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
         @Query("UPDATE Post p SET p.bookmarksCount = p.bookmarksCount + 1 WHERE p.id = :postId")
-        void incrementBookmarksCount(@Param("postId") Long postId);
+        int incrementBookmarksCount(@Param("postId") Long postId);
 
         @Modifying(clearAutomatically = true, flushAutomatically = true)
         @Query("UPDATE Post p SET p.bookmarksCount = p.bookmarksCount - 1 WHERE p.id = :postId AND p.bookmarksCount > 0")
         void decrementBookmarksCount(@Param("postId") Long postId);
 
-        @Query(value = "SELECT * FROM posts p WHERE p.status = 'PUBLISHED' AND " +
-                        "MATCH(p.title, p.content_md, p.content_html) AGAINST(:query IN BOOLEAN MODE)", countQuery = "SELECT count(*) FROM posts p WHERE p.status = 'PUBLISHED' AND "
-                                        +
-                                        "MATCH(p.title, p.content_md, p.content_html) AGAINST(:query IN BOOLEAN MODE)", nativeQuery = true)
-        Page<Post> searchPosts(@Param("query") String query, Pageable pageable);
+        // Database search mode (app.search.mode=database) and the fallback while the index is built.
+        // Bodies live in post_bodies, so the title and body FULLTEXT indexes are matched separately
+        @Query(value = "SELECT p.id FROM posts p LEFT JOIN post_bodies b ON b.post_id = p.id " +
+                        "LEFT JOIN categories c ON c.id = p.category_id " +
+                        "WHERE p.status = 'PUBLISHED' AND (MATCH(p.title) AGAINST(:query IN BOOLEAN MODE) " +
+                        "OR MATCH(b.content_md, b.content_html) AGAINST(:query IN BOOLEAN MODE)) " +
+                        "AND (:categorySlug IS NULL OR c.slug = :categorySlug) " +
+                        "AND (:tagSlug IS NULL OR EXISTS (SELECT 1 FROM post_tags pt JOIN tags t ON t.id = pt.tag_id " +
+                        "WHERE pt.post_id = p.id AND t.slug = :tagSlug))",
+                        countQuery = "SELECT count(*) FROM posts p LEFT JOIN post_bodies b ON b.post_id = p.id " +
+                                        "LEFT JOIN categories c ON c.id = p.category_id " +
+                                        "WHERE p.status = 'PUBLISHED' AND (MATCH(p.title) AGAINST(:query IN BOOLEAN MODE) " +
+                                        "OR MATCH(b.content_md, b.content_html) AGAINST(:query IN BOOLEAN MODE)) " +
+                                        "AND (:categorySlug IS NULL OR c.slug = :categorySlug) " +
+                                        "AND (:tagSlug IS NULL OR EXISTS (SELECT 1 FROM post_tags pt JOIN tags t ON t.id = pt.tag_id " +
+                                        "WHERE pt.post_id = p.id AND t.slug = :tagSlug))",
+                        nativeQuery = true)
+        Page<Long> searchPostIds(@Param("query") String query, @Param("categorySlug") String categorySlug,
+                        @Param("tagSlug") String tagSlug, Pageable pageable);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' AND p.publishedAt >= :since " +
-                        "ORDER BY (p.views + (p.likesCount * 3) + (p.commentsCount * 5)) DESC")
-        Page<Post> findTrendingPosts(@Param("since") LocalDateTime since, Pageable pageable);
+        // Search index documents: [id, title, summary, username, displayName, categorySlug, publishedAt,
+        // contentHtml]; only published posts come back, so a missing id means "remove from the index"
+        @Query("SELECT p.id, p.title, p.summary, a.username, a.displayName, c.slug, p.publishedAt, b.contentHtml " +
+                        "FROM Post p JOIN p.author a LEFT JOIN p.category c LEFT JOIN PostBody b ON b.postId = p.id " +
+                        "WHERE p.status = 'PUBLISHED' AND p.id IN :ids")
+        List<Object[]> findSearchRowsByIdIn(@Param("ids") Collection<Long> ids);
 
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT DISTINCT p FROM Post p " +
-                        "LEFT JOIN p.tags t " +
-                        "WHERE p.status = 'PUBLISHED' " +
-                        "AND p.id != :postId " +
-                        "AND (p.category.id = :categoryId OR t.id IN :tagIds) " +
-                        "ORDER BY p.publishedAt DESC")
-        Page<Post> findSimilarPosts(
-                        @Param("postId") Long postId,
-                        @Param("categoryId") Long categoryId,
-                        @Param("tagIds") java.util.Set<Long> tagIds,
-                        Pageable pageable);
+        @Query("SELECT p.id FROM Post p WHERE p.updatedAt >= :since")
+        List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+        @Query("SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.id IN :ids")
+        List<Long> findPublishedIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Inputs of the trending score: [id, status, publishedAt, views, likes, comments, bookmarks]
+        @Query("SELECT p.id, p.status, p.publishedAt, p.views, p.likesCount, p.commentsCount, p.bookmarksCount " +
+                        "FROM Post p WHERE p.id IN :ids")
+        List<Object[]> findTrendingInputRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Published posts whose trending row is missing or was computed from other counter values
+        // (all published posts in the window when full is set). Rows are scored from the posts
+        // columns plus the pending post_counters shards, so they are compared with the same sums.
+        @Query("SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.publishedAt >= :cutoff AND p.id > :afterId " +
+                        "AND (:full = true OR NOT EXISTS (SELECT s.postId FROM PostTrendingScore s WHERE s.postId = p.id " +
+                        "AND s.publishedAt = p.publishedAt " +
+                        "AND s.views = p.views + COALESCE((SELECT SUM(c.views) FROM PostCounter c WHERE c.postId = p.id), 0) " +
+                        "AND s.likesCount = p.likesCount + " +
+                        "COALESCE((SELECT SUM(c.likesCount) FROM PostCounter c WHERE c.postId = p.id), 0) " +
+                        "AND s.commentsCount = p.commentsCount + " +
+                        "COALESCE((SELECT SUM(c.commentsCount) FROM PostCounter c WHERE c.postId = p.id), 0) " +
+                        "AND s.bookmarksCount = p.bookmarksCount + " +
+                        "COALESCE((SELECT SUM(c.bookmarksCount) FROM PostCounter c WHERE c.postId = p.id), 0))) " +
+                        "ORDER BY p.id")
+        List<Long> findIdsWithStaleTrendingScore(@Param("cutoff") LocalDateTime cutoff, @Param("full") boolean full,
+                        @Param("afterId") Long afterId, Pageable pageable);
+
+        // Tag ids of the given posts: [postId, tagId]
+        @Query("SELECT p.id, t.id FROM Post p JOIN p.tags t WHERE p.id IN :ids")
+        List<Object[]> findTagIdRowsByPostIdIn(@Param("ids") Collection<Long> ids);
+
+        // Similar-posts inputs: [id, categoryId, publishedAt] of published posts
+        @Query("SELECT p.id, c.id, p.publishedAt FROM Post p LEFT JOIN p.category c " +
+                        "WHERE p.id IN :ids AND p.status = 'PUBLISHED'")
+        List<Object[]> findSimilarityRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Newest published posts carrying the tag
+        @Query("SELECT p.id FROM Post p JOIN p.tags t WHERE p.status = 'PUBLISHED' AND t.id = :tagId " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findPublishedIdsByTagId(@Param("tagId") Long tagId, Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.category.id = :categoryId " +
+                        "ORDER BY p.publishedAt DESC, p.id DESC")
+        List<Long> findPublishedIdsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.id > :afterId ORDER BY p.id")
+        List<Long> findPublishedIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 
         // Feed posts from followed authors
-        @EntityGraph(attributePaths = {"tags", "author", "category"})
-        @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' AND p.author.id IN " +
+        @Query(value = "SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED' AND p.author.id IN " +
                         "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
-                        "ORDER BY p.publishedAt DESC")
-        Page<Post> findFeedPosts(@Param("userId") Long userId, Pageable pageable);
+                        "ORDER BY p.publishedAt DESC",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = 'PUBLISHED' AND p.author.id IN " +
+                                        "(SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId)")
+        Page<Long> findFeedPostIds(@Param("userId") Long userId, Pageable pageable);
 
         // Admin statistics queries
         long countByStatus(PostStatus status);
@@ -0,0 +1,36 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostSimilarity;
+import com.server.server.domain.PostSimilarityId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostSimilarityRepository extends JpaRepository<PostSimilarity, PostSimilarityId> {
+
+    @Query(value = "SELECT s.similarPostId FROM PostSimilarity s WHERE s.postId = :postId ORDER BY s.rankNo",
+            countQuery = "SELECT COUNT(s) FROM PostSimilarity s WHERE s.postId = :postId")
+    Page<Long> findSimilarPostIds(@Param("postId") Long postId, Pageable pageable);
+
+    List<PostSimilarity> findAllByPostIdIn(Collection<Long> postIds);
+
+    // Posts whose lists mention the given post, so they can be recomputed when it changes
+    @Query("SELECT DISTINCT s.postId FROM PostSimilarity s WHERE s.similarPostId = :postId")
+    List<Long> findPostIdsReferencing(@Param("postId") Long postId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM PostSimilarity s WHERE s.postId IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM PostSimilarity s WHERE s.similarPostId = :postId")
+    int deleteBySimilarPostId(@Param("postId") Long postId);
+}
@@ -0,0 +1,36 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostTrendingScore;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface PostTrendingScoreRepository extends JpaRepository<PostTrendingScore, Long> {
+
+    // Walks idx_trending_score backwards and stops at the page limit. MAX_EXECUTION_TIME
+    // caps the statement at 250 ms on MySQL; other databases treat the hint as a comment.
+    @Query(value = "SELECT /*+ MAX_EXECUTION_TIME(250) */ post_id FROM post_trending_score " +
+            "WHERE published_at >= :since ORDER BY score DESC, post_id DESC",
+            countQuery = "SELECT /*+ MAX_EXECUTION_TIME(250) */ COUNT(*) FROM post_trending_score " +
+                    "WHERE published_at >= :since",
+            nativeQuery = true)
+    Page<Long> findTrendingPostIds(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM PostTrendingScore s WHERE s.postId IN :postIds")
+    int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    // Rows that fell out of the retention window or whose post is no longer published
+    @Modifying
+    @Query("DELETE FROM PostTrendingScore s WHERE s.publishedAt < :cutoff " +
+            "OR s.postId NOT IN (SELECT p.id FROM Post p WHERE p.status = 'PUBLISHED')")
+    int deleteStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -4,9 +4,7 @@ import com.server.server.domain.PostView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+// Rows are written in batches by PostViewBuffer; dedup goes through ViewSketchService
 @Repository
 public interface PostViewRepository extends JpaRepository<PostView, Long> {
-    boolean existsByPostIdAndUserId(Long postId, Long userId);
-
-    boolean existsByPostIdAndIpAddress(Long postId, String ipAddress);
 }
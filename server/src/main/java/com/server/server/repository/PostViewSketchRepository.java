@@ -0,0 +1,16 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostViewSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PostViewSketchRepository extends JpaRepository<PostViewSketch, Long> {
+
+    @Query("SELECT s.uniqueVisitors FROM PostViewSketch s WHERE s.postId = :postId")
+    Optional<Long> findUniqueVisitors(@Param("postId") Long postId);
+}
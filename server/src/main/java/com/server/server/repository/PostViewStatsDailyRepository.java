@@ -0,0 +1,21 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostViewStatsDaily;
+import com.server.server.domain.PostViewStatsDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PostViewStatsDailyRepository extends JpaRepository<PostViewStatsDaily, PostViewStatsDailyId> {
+
+    List<PostViewStatsDaily> findByPostIdAndViewDateBetweenOrderByViewDate(
+            Long postId, LocalDate from, LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(s.views), 0) FROM PostViewStatsDaily s WHERE s.viewDate >= :from")
+    long sumViewsSince(@Param("from") LocalDate from);
+}
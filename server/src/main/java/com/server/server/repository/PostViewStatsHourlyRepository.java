@@ -0,0 +1,16 @@
+package com.server.server.repository;
+
+import com.server.server.domain.PostViewStatsHourly;
+import com.server.server.domain.PostViewStatsHourlyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PostViewStatsHourlyRepository extends JpaRepository<PostViewStatsHourly, PostViewStatsHourlyId> {
+
+    List<PostViewStatsHourly> findByPostIdAndBucketStartBetweenOrderByBucketStart(
+            Long postId, LocalDateTime from, LocalDateTime to);
+}
@@ -20,9 +20,17 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     
     boolean existsBySlug(String slug);
     
+    // Validators for conditional GETs; the count catches deletes that leave MAX(updatedAt) unchanged
+    @Query("SELECT COUNT(t), MAX(t.updatedAt) FROM Tag t")
+    List<Object[]> findCollectionVersion();
+
     @Query("SELECT t FROM Tag t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY t.name")
     List<Tag> searchByName(@Param("query") String query);
 
+    // Document frequency of each tag among published posts: [tagId, count]
+    @Query("SELECT t.id, COUNT(p) FROM Tag t JOIN t.posts p WHERE p.status = 'PUBLISHED' AND t.id IN :tagIds GROUP BY t.id")
+    List<Object[]> countPublishedPostsByTagIdIn(@Param("tagIds") java.util.Collection<Long> tagIds);
+
     @Query("SELECT t, COUNT(p) FROM Tag t LEFT JOIN t.posts p ON p.status = 'PUBLISHED' GROUP BY t ORDER BY COUNT(p) DESC")
     List<Object[]> findTopTagsByPostCount(org.springframework.data.domain.Pageable pageable);
 }
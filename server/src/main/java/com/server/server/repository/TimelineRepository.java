@@ -0,0 +1,82 @@
+package com.server.server.repository;
+
+import com.server.server.domain.TimelineEntry;
+import com.server.server.domain.TimelineEntryId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineRepository extends JpaRepository<TimelineEntry, TimelineEntryId> {
+
+    @Query(value = "SELECT post_id FROM user_timelines WHERE user_id = :userId " +
+            "ORDER BY published_at DESC, post_id DESC",
+            countQuery = "SELECT COUNT(*) FROM user_timelines WHERE user_id = :userId",
+            nativeQuery = true)
+    Page<Long> findPostIds(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "SELECT post_id FROM user_timelines WHERE user_id = :userId " +
+            "AND (published_at < :ts OR (published_at = :ts AND post_id < :id)) " +
+            "ORDER BY published_at DESC, post_id DESC",
+            nativeQuery = true)
+    List<Long> findPostIdsBefore(@Param("userId") Long userId, @Param("ts") LocalDateTime ts,
+            @Param("id") Long id, Pageable pageable);
+
+    // Fan-out on publish: one row per follower of the author
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_timelines (user_id, post_id, author_id, published_at) " +
+            "SELECT f.follower_id, :postId, :authorId, :publishedAt FROM follows f WHERE f.following_id = :authorId",
+            nativeQuery = true)
+    int fanOut(@Param("postId") Long postId, @Param("authorId") Long authorId,
+            @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_timelines WHERE post_id = :postId", nativeQuery = true)
+    int deleteByPostId(@Param("postId") Long postId);
+
+    // Newest published posts of one author, pushed when a reader starts following them
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_timelines (user_id, post_id, author_id, published_at) " +
+            "SELECT :userId, p.id, p.author_id, p.published_at FROM posts p " +
+            "WHERE p.author_id = :authorId AND p.status = 'PUBLISHED' AND p.published_at IS NOT NULL " +
+            "ORDER BY p.published_at DESC LIMIT :limit",
+            nativeQuery = true)
+    int backfillAuthor(@Param("userId") Long userId, @Param("authorId") Long authorId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_timelines WHERE user_id = :userId AND author_id = :authorId", nativeQuery = true)
+    int deleteByUserIdAndAuthorId(@Param("userId") Long userId, @Param("authorId") Long authorId);
+
+    // Initial build for a cold user: newest published posts across everyone they follow
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_timelines (user_id, post_id, author_id, published_at) " +
+            "SELECT f.follower_id, p.id, p.author_id, p.published_at FROM follows f " +
+            "JOIN posts p ON p.author_id = f.following_id " +
+            "WHERE f.follower_id = :userId AND p.status = 'PUBLISHED' AND p.published_at IS NOT NULL " +
+            "ORDER BY p.published_at DESC LIMIT :limit",
+            nativeQuery = true)
+    int materialize(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT user_id FROM user_timelines GROUP BY user_id HAVING COUNT(*) > :maxLength",
+            nativeQuery = true)
+    List<Long> findUserIdsOverLength(@Param("maxLength") int maxLength);
+
+    // First entry past the cap: [published_at, post_id]
+    @Query(value = "SELECT published_at, post_id FROM user_timelines WHERE user_id = :userId " +
+            "ORDER BY published_at DESC, post_id DESC LIMIT 1 OFFSET :maxLength",
+            nativeQuery = true)
+    List<Object[]> findTrimBoundary(@Param("userId") Long userId, @Param("maxLength") int maxLength);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_timelines WHERE user_id = :userId " +
+            "AND (published_at < :ts OR (published_at = :ts AND post_id <= :id))",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("userId") Long userId, @Param("ts") LocalDateTime ts, @Param("id") Long id);
+}
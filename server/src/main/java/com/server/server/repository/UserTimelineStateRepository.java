@@ -0,0 +1,9 @@
+package com.server.server.repository;
+
+import com.server.server.domain.UserTimelineState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserTimelineStateRepository extends JpaRepository<UserTimelineState, Long> {
+}
@@ -1,12 +1,15 @@
 package com.server.server.service;
 
 import com.server.server.domain.Category;
+import com.server.server.dto.ResourceVersion;
 import com.server.server.dto.category.CategoryDto;
 import com.server.server.repository.CategoryRepository;
+import com.server.server.util.HttpCacheUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -48,6 +51,25 @@ public class CategoryService {
         return mapToDto(category);
     }
 
+    public ResourceVersion getCategoriesVersion() {
+        Object[] row = categoryRepository.findCollectionVersion().get(0);
+        LocalDateTime lastModified = (LocalDateTime) row[1];
+        return new ResourceVersion(HttpCacheUtils.etag("categories", row[0], lastModified), lastModified);
+    }
+
+    public ResourceVersion getCategoryVersion(Long id) {
+        return categoryRepository.findVersionRowById(id).stream().findFirst().map(this::toVersion).orElse(null);
+    }
+
+    public ResourceVersion getCategoryVersionBySlug(String slug) {
+        return categoryRepository.findVersionRowBySlug(slug).stream().findFirst().map(this::toVersion).orElse(null);
+    }
+
+    private ResourceVersion toVersion(Object[] row) {
+        LocalDateTime updatedAt = (LocalDateTime) row[1];
+        return new ResourceVersion(HttpCacheUtils.etag("c" + row[0], updatedAt), updatedAt);
+    }
+
     @Transactional
     public CategoryDto createCategory(com.server.server.dto.category.CreateCategoryRequest request) {
         if (categoryRepository.existsByName(request.getName())) {
@@ -6,13 +6,22 @@ import com.server.server.domain.Post;
 import com.server.server.domain.User;
 import com.server.server.dto.AuthorDto;
 import com.server.server.dto.CommentDto;
+import com.server.server.dto.CommentEventDto;
 import com.server.server.dto.CreateCommentRequest;
+import com.server.server.dto.CursorPage;
 import com.server.server.dto.UpdateCommentRequest;
 import com.server.server.repository.CommentRepository;
 import com.server.server.repository.PostRepository;
+import com.server.server.util.CursorUtils;
+import com.server.server.util.TransactionUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,13 +34,32 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class CommentService {
 
+    // Path segments are ten digits plus '/', so VARCHAR(2000) paths fit 181 levels
+    public static final int MAX_DEPTH = 100;
+    public static final int MAX_REPLY_PREVIEW = 50;
+    public static final int MAX_PAGE_SIZE = CursorUtils.MAX_PAGE_SIZE;
+    // Sorts above every path character ('0'-'9', '/'): [path, path + PATH_END) is a subtree
+    private static final String PATH_END = ":";
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
+    private final PostCounterService postCounterService;
     private final NotificationService notificationService;
-
+    private final PostDetailCache postDetailCache;
+    private final TrendingScoreService trendingScoreService;
+    private final CommentTreeCache commentTreeCache;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * The post's full comment tree, served from {@link CommentTreeCache}; the
+     * returned tree is shared and must not be modified. Runs without a
+     * transaction so a cache miss fills on the only connection taken.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CommentDto> getCommentsByPostSlug(String slug) {
-        List<Comment> allComments = commentRepository.findByPostSlugWithAuthor(slug);
-        return buildCommentTree(allComments);
+        return commentTreeCache.getBySlug(slug,
+                key -> postRepository.findIdBySlug(key).orElse(null),
+                postId -> buildCommentTree(commentRepository.findByPostIdWithAuthor(postId)));
     }
 
     public List<CommentDto> getCommentsByPostId(Long postId) {
@@ -39,6 +67,96 @@ public class CommentService {
         return buildCommentTree(allComments);
     }
 
+    /**
+     * One page of a post's top-level comments, oldest first. Each thread carries
+     * its first {@code replyLimit} replies, depth-first, nested below it; a thread
+     * with more replies gets a cursor for {@link #getReplies}. {@code size} is
+     * clamped to 1..{@link #MAX_PAGE_SIZE}.
+     */
+    public CursorPage<CommentDto> getThreads(String slug, String cursor, int size, int replyLimit) {
+        size = CursorUtils.clampSize(size);
+        replyLimit = Math.max(0, Math.min(replyLimit, MAX_REPLY_PREVIEW));
+        CursorUtils.Cursor position = CursorUtils.decodeAscending(cursor);
+        List<Comment> roots = commentRepository.findThreadsByPostSlugAfter(slug,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+
+        boolean hasNext = roots.size() > size;
+        if (hasNext) {
+            roots = roots.subList(0, size);
+        }
+
+        Map<Long, CommentDto> dtosById = new HashMap<>();
+        Map<Long, String> lastShownPath = new HashMap<>();
+        List<CommentDto> threads = new ArrayList<>();
+        for (Comment root : roots) {
+            CommentDto dto = mapToDto(root);
+            dtosById.put(root.getId(), dto);
+            lastShownPath.put(root.getId(), root.getPath());
+            threads.add(dto);
+        }
+
+        if (!roots.isEmpty()) {
+            // One extra reply per thread tells whether there are more
+            List<Long> replyIds = commentRepository.findFirstReplyIds(dtosById.keySet(), replyLimit + 1);
+            List<Comment> replies = replyIds.isEmpty() ? List.of() : commentRepository.findByIdInWithAuthor(replyIds);
+            Map<Long, Integer> shown = new HashMap<>();
+            for (Comment reply : replies) {
+                CommentDto thread = dtosById.get(reply.getRootId());
+                if (shown.merge(reply.getRootId(), 1, Integer::sum) > replyLimit) {
+                    thread.setHasMoreReplies(true);
+                    thread.setRepliesCursor(CursorUtils.encodeKey(lastShownPath.get(reply.getRootId())));
+                    continue;
+                }
+                // A depth-first prefix of a thread is connected: the parent is already placed
+                CommentDto dto = mapToDto(reply);
+                dtosById.put(reply.getId(), dto);
+                dtosById.get(reply.getParent().getId()).getChildren().add(dto);
+                lastShownPath.put(reply.getRootId(), reply.getPath());
+            }
+        }
+
+        String nextCursor = null;
+        if (hasNext && !roots.isEmpty()) {
+            Comment last = roots.get(roots.size() - 1);
+            nextCursor = CursorUtils.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(threads, nextCursor, hasNext, size);
+    }
+
+    /**
+     * Replies below a comment (at any depth), depth-first, flat: each carries its
+     * parentId and depth. Without a cursor the page starts at the first reply; a
+     * thread's {@code repliesCursor} continues after its nested preview.
+     * {@code size} is clamped like {@link #getThreads}'s.
+     */
+    public CursorPage<CommentDto> getReplies(Long commentId, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
+        String after = cursor != null && !cursor.isBlank() ? CursorUtils.decodeKey(cursor) : comment.getPath();
+        if (!after.startsWith(comment.getPath())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        Long rootId = comment.getRootId() != null ? comment.getRootId() : comment.getId();
+        List<Comment> replies = commentRepository.findRepliesInPathRange(rootId, after,
+                comment.getPath() + PATH_END, PageRequest.of(0, size + 1));
+
+        boolean hasNext = replies.size() > size;
+        if (hasNext) {
+            replies = replies.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext && !replies.isEmpty()) {
+            nextCursor = CursorUtils.encodeKey(replies.get(replies.size() - 1).getPath());
+        }
+        List<CommentDto> content = replies.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, nextCursor, hasNext, size);
+    }
+
     @Transactional
     public CommentDto createComment(Long postId, CreateCommentRequest request, User author) {
         Post post = postRepository.findById(postId)
@@ -57,13 +175,28 @@ public class CommentService {
                 throw new IllegalArgumentException("Parent comment does not belong to this post");
             }
 
+            if (parent.getDepth() >= MAX_DEPTH) {
+                throw new IllegalArgumentException("Reply thread is too deep");
+            }
+
             comment.setParent(parent);
+            comment.setRootId(parent.getRootId() != null ? parent.getRootId() : parent.getId());
+            comment.setDepth(parent.getDepth() + 1);
+            comment.setPath(parent.getPath());
+        } else {
+            comment.setPath("");
         }
 
+        // Counted before the insert, the lock order PostCounterService requires
+        postCounterService.add(postId, PostCounterService.Counter.COMMENTS, 1);
         Comment saved = commentRepository.save(comment);
-
-        // Increment post comments count
-        postRepository.incrementCommentsCount(postId);
+        // The path ends with the comment's own id, assigned by the insert
+        commentRepository.updatePath(saved.getId(), saved.getPath() + pathSegment(saved.getId()));
+        postDetailCache.evict(postId);
+        trendingScoreService.markDirty(postId);
+        CommentDto dto = mapToDto(saved);
+        publish(new CommentEventDto(CommentEventDto.Type.CREATED, postId, saved.getId(),
+                dto.getParentId(), dto, 0));
 
         // Send notification
         if (request.getParentId() == null) {
@@ -87,7 +220,7 @@ public class CommentService {
             }
         }
 
-        return mapToDto(saved);
+        return dto;
     }
 
     @Transactional
@@ -100,9 +233,12 @@ public class CommentService {
         }
 
         comment.setContent(request.getContent());
-        Comment updated = commentRepository.save(comment);
+        Comment updated = commentRepository.saveAndFlush(comment);
 
-        return mapToDto(updated);
+        CommentDto dto = mapToDto(updated);
+        publish(new CommentEventDto(CommentEventDto.Type.UPDATED, dto.getPostId(), commentId,
+                dto.getParentId(), dto, 0));
+        return dto;
     }
 
     @Transactional
@@ -116,20 +252,43 @@ public class CommentService {
         }
 
         Long postId = comment.getPost().getId();
-        long repliesToDelete = countAllReplies(comment);
-
-        commentRepository.delete(comment);
+        Long parentId = comment.getParent() != null ? comment.getParent().getId() : null;
+        Long rootId = comment.getRootId() != null ? comment.getRootId() : comment.getId();
+        String path = comment.getPath();
+        String end = path + PATH_END;
+
+        // Counted and decremented before the delete, the lock order PostCounterService
+        // requires; a reply added in between is deleted too and settled below
+        int counted = (int) commentRepository.countSubtreeReplies(rootId, path, end) + 1;
+        postCounterService.add(postId, PostCounterService.Counter.COMMENTS, -counted);
+
+        int deleted = commentRepository.deleteSubtreeReplies(rootId, path, end)
+                + commentRepository.deleteRowById(commentId);
+        if (deleted != counted) {
+            postCounterService.add(postId, PostCounterService.Counter.COMMENTS, counted - deleted);
+        }
+        postDetailCache.evict(postId);
+        trendingScoreService.markDirty(postId);
+        publish(new CommentEventDto(CommentEventDto.Type.DELETED, postId, commentId, parentId, null, deleted));
+    }
 
-        // Decrement post comments count (including all nested replies)
-        postRepository.decrementCommentsCount(postId, (int) (repliesToDelete + 1));
+    /**
+     * Once the write commits, patches the cached comment tree and pushes the event
+     * to the post's {@code /topic/posts/{postId}/comments} subscribers.
+     */
+    private void publish(CommentEventDto event) {
+        TransactionUtils.afterCommit(() -> {
+            commentTreeCache.apply(event);
+            messagingTemplate.convertAndSend("/topic/posts/" + event.getPostId() + "/comments", event);
+        });
     }
 
-    private long countAllReplies(Comment comment) {
-        long count = comment.getChildren().size();
-        for (Comment child : comment.getChildren()) {
-            count += countAllReplies(child);
-        }
-        return count;
+    /**
+     * A comment's path segment: its id zero-padded to ten digits, then '/'. Fixed
+     * width makes string order match id (creation) order within a parent.
+     */
+    static String pathSegment(Long commentId) {
+        return String.format("%010d/", commentId);
     }
 
     private List<CommentDto> buildCommentTree(List<Comment> allComments) {
@@ -167,6 +326,7 @@ public class CommentService {
         dto.setContent(comment.getContent());
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
+        dto.setDepth(comment.getDepth());
 
         // Map author
         User author = comment.getAuthor();
@@ -0,0 +1,232 @@
+package com.server.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.server.server.config.CommentTreeCacheProperties;
+import com.server.server.dto.CommentDto;
+import com.server.server.dto.CommentEventDto;
+import com.server.server.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-process cache of each post's full comment tree.
+ *
+ * A tree is read from the database once per fill and afterwards patched by the
+ * committed comment events {@link CommentService} publishes, instead of being
+ * rebuilt. Cached trees are never mutated: a patch copies the changed comment
+ * and its ancestors and publishes a new root list, so a reader can serialize a
+ * tree while a write is applied. An event that does not fit the cached tree
+ * drops the entry. Writes made on other instances show up after the TTL.
+ */
+@Component
+public class CommentTreeCache {
+
+    private final Cache<Long, PostComments> trees;
+    private final Cache<String, Long> postIdBySlug;
+    private final TransactionTemplate loadTemplate;
+
+    public CommentTreeCache(CommentTreeCacheProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.trees = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxComments())
+                .weigher((Long postId, PostComments comments) -> comments.size() + 1)
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.postIdBySlug = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxComments())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        // Callers hold no transaction, so a fill reads a fresh snapshot; an older one
+        // could miss a write whose patch ran before the fill started. A caller's
+        // transaction is joined rather than suspended, so a miss never holds a
+        // second pooled connection.
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setReadOnly(true);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, "comment.tree");
+    }
+
+    /**
+     * The post's comment tree, loaded on a miss; empty for an unknown slug. The
+     * returned lists and comments are shared and must not be modified.
+     */
+    public List<CommentDto> getBySlug(String slug, Function<String, Long> postIdLoader,
+            Function<Long, List<CommentDto>> treeLoader) {
+        Long postId = postIdBySlug.get(slug, postIdLoader);
+        return postId != null ? getById(postId, treeLoader) : List.of();
+    }
+
+    public List<CommentDto> getById(Long postId, Function<Long, List<CommentDto>> treeLoader) {
+        return trees.get(postId, id -> new PostComments(loadTemplate.execute(status -> treeLoader.apply(id))))
+                .roots();
+    }
+
+    /**
+     * Patches the cached tree of the event's post, if any. Call after commit.
+     */
+    public void apply(CommentEventDto event) {
+        trees.asMap().computeIfPresent(event.getPostId(), (postId, comments) -> {
+            boolean applied;
+            switch (event.getType()) {
+                case CREATED:
+                    applied = comments.add(event.getComment());
+                    break;
+                case UPDATED:
+                    applied = comments.update(event.getComment());
+                    break;
+                default:
+                    applied = comments.remove(event.getCommentId());
+            }
+            // Returned so the cache re-weighs the entry; null drops it
+            return applied ? comments : null;
+        });
+    }
+
+    /**
+     * Drops a post's tree and slug mapping once the surrounding transaction
+     * commits, for post deletes and slug changes.
+     */
+    public void evict(Long postId, String slug) {
+        TransactionUtils.afterCommit(() -> {
+            trees.invalidate(postId);
+            if (slug != null) {
+                postIdBySlug.invalidate(slug);
+            }
+        });
+    }
+
+    /**
+     * One post's tree: the published root list plus the current version of every
+     * comment by id, which a patch uses to find the ancestors it must copy.
+     */
+    private static class PostComments {
+        private List<CommentDto> roots;
+        private final Map<Long, CommentDto> nodes = new HashMap<>();
+
+        PostComments(List<CommentDto> tree) {
+            this.roots = freeze(tree);
+        }
+
+        // Copies the loaded tree into immutable lists and indexes it
+        private List<CommentDto> freeze(List<CommentDto> comments) {
+            List<CommentDto> frozen = new ArrayList<>(comments.size());
+            for (CommentDto comment : comments) {
+                CommentDto node = copyOf(comment);
+                node.setChildren(freeze(comment.getChildren()));
+                nodes.put(node.getId(), node);
+                frozen.add(node);
+            }
+            return List.copyOf(frozen);
+        }
+
+        synchronized List<CommentDto> roots() {
+            return roots;
+        }
+
+        synchronized int size() {
+            return nodes.size();
+        }
+
+        synchronized boolean add(CommentDto comment) {
+            if (nodes.containsKey(comment.getId())) {
+                return true;
+            }
+            if (comment.getParentId() != null && !nodes.containsKey(comment.getParentId())) {
+                return false;
+            }
+            CommentDto node = copyOf(comment);
+            node.setChildren(List.of());
+            nodes.put(node.getId(), node);
+            // Newest last, the order the tree is loaded in
+            changeChildren(node.getParentId(), siblings -> {
+                siblings.add(node);
+                return siblings;
+            });
+            return true;
+        }
+
+        synchronized boolean update(CommentDto comment) {
+            CommentDto old = nodes.get(comment.getId());
+            if (old == null) {
+                return false;
+            }
+            CommentDto node = copyOf(old);
+            node.setContent(comment.getContent());
+            node.setUpdatedAt(comment.getUpdatedAt());
+            nodes.put(node.getId(), node);
+            changeChildren(node.getParentId(), siblings -> replace(siblings, old, node));
+            return true;
+        }
+
+        synchronized boolean remove(Long commentId) {
+            CommentDto old = nodes.get(commentId);
+            if (old == null) {
+                return true;
+            }
+            forget(old);
+            changeChildren(old.getParentId(), siblings -> replace(siblings, old, null));
+            return true;
+        }
+
+        private void forget(CommentDto node) {
+            nodes.remove(node.getId());
+            node.getChildren().forEach(this::forget);
+        }
+
+        // Publishes a changed child list of parentId (null for the roots), copying
+        // each ancestor up to the root list
+        private void changeChildren(Long parentId, UnaryOperator<List<CommentDto>> change) {
+            if (parentId == null) {
+                roots = List.copyOf(change.apply(new ArrayList<>(roots)));
+                return;
+            }
+            CommentDto parent = nodes.get(parentId);
+            CommentDto copy = copyOf(parent);
+            copy.setChildren(List.copyOf(change.apply(new ArrayList<>(parent.getChildren()))));
+            nodes.put(parentId, copy);
+            changeChildren(parent.getParentId(), siblings -> replace(siblings, parent, copy));
+        }
+
+        // Swaps (or with null, removes) one comment by identity
+        private static List<CommentDto> replace(List<CommentDto> siblings, CommentDto old, CommentDto node) {
+            for (int i = 0; i < siblings.size(); i++) {
+                if (siblings.get(i) == old) {
+                    if (node != null) {
+                        siblings.set(i, node);
+                    } else {
+                        siblings.remove(i);
+                    }
+                    break;
+                }
+            }
+            return siblings;
+        }
+
+        private static CommentDto copyOf(CommentDto comment) {
+            CommentDto copy = new CommentDto();
+            copy.setId(comment.getId());
+            copy.setPostId(comment.getPostId());
+            copy.setParentId(comment.getParentId());
+            copy.setAuthor(comment.getAuthor());
+            copy.setContent(comment.getContent());
+            copy.setCreatedAt(comment.getCreatedAt());
+            copy.setUpdatedAt(comment.getUpdatedAt());
+            copy.setDepth(comment.getDepth());
+            copy.setChildren(comment.getChildren());
+            return copy;
+        }
+    }
+}
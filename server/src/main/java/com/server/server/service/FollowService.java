@@ -20,12 +20,14 @@ public class FollowService {
     private final FollowRepository followRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final TimelineService timelineService;
 
     public FollowService(FollowRepository followRepository, UserRepository userRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService, TimelineService timelineService) {
         this.followRepository = followRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.timelineService = timelineService;
     }
 
     @Transactional
@@ -48,6 +50,7 @@ public class FollowService {
         follow.setFollower(follower);
         follow.setFollowing(following);
         followRepository.save(follow);
+        timelineService.onFollow(follower.getId(), following.getId());
 
         // Send notification
         notificationService.createNotification(following.getId(), follower.getId(), NotificationType.FOLLOW, null);
@@ -62,6 +65,7 @@ public class FollowService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not following"));
 
         followRepository.delete(follow);
+        timelineService.onUnfollow(followerId, following.getId());
     }
 
     public boolean isFollowing(Long followerId, String followingUsername) {
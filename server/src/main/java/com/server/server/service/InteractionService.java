@@ -1,164 +1,289 @@
 package com.server.server.service;
 
-import com.server.server.domain.Bookmark;
-import com.server.server.domain.Like;
 import com.server.server.domain.NotificationType;
-import com.server.server.domain.Post;
-import com.server.server.domain.User;
+import com.server.server.dto.CursorPage;
 import com.server.server.dto.InteractionStatusDto;
 import com.server.server.dto.post.PostListDto;
 import com.server.server.repository.BookmarkRepository;
 import com.server.server.repository.LikeRepository;
 import com.server.server.repository.PostRepository;
-import lombok.RequiredArgsConstructor;
+import com.server.server.util.CursorUtils;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 @Slf4j
 public class InteractionService {
 
+    public static final int MAX_BATCH_STATUS_IDS = 100;
+    // A toggle that loses a deadlock or a lock wait is run again this many times in all
+    private static final int MAX_TOGGLE_ATTEMPTS = 3;
+
     private final LikeRepository likeRepository;
     private final BookmarkRepository bookmarkRepository;
     private final PostRepository postRepository;
+    private final PostCounterService postCounterService;
     private final NotificationService notificationService;
+    private final PostDetailCache postDetailCache;
+    private final TrendingScoreService trendingScoreService;
+    private final PostService postService;
+    private final InteractionSetCache interactionSetCache;
+    private final TransactionTemplate toggleTemplate;
+
+    public InteractionService(LikeRepository likeRepository,
+            BookmarkRepository bookmarkRepository,
+            PostRepository postRepository,
+            PostCounterService postCounterService,
+            NotificationService notificationService,
+            PostDetailCache postDetailCache,
+            TrendingScoreService trendingScoreService,
+            PostService postService,
+            InteractionSetCache interactionSetCache,
+            PlatformTransactionManager transactionManager) {
+        this.likeRepository = likeRepository;
+        this.bookmarkRepository = bookmarkRepository;
+        this.postRepository = postRepository;
+        this.postCounterService = postCounterService;
+        this.notificationService = notificationService;
+        this.postDetailCache = postDetailCache;
+        this.trendingScoreService = trendingScoreService;
+        this.postService = postService;
+        this.interactionSetCache = interactionSetCache;
+        // Under REPEATABLE READ the delete that finds no row gap-locks the (user_id, post_id)
+        // key, and two likers in one gap then deadlock on each other's insert
+        this.toggleTemplate = new TransactionTemplate(transactionManager);
+        this.toggleTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
 
-    @Transactional
-    public InteractionStatusDto toggleLike(Long postId, User user) {
-        if (user == null) {
+    /**
+     * Likes or unlikes a post without locking it up front: the delete's affected-row
+     * count says which way the toggle goes, and the likes key makes a concurrent
+     * duplicate insert a no-op. On a like the counter is bumped before the insert,
+     * the lock order {@link PostCounterService} requires (with a DIRECT counter the
+     * other order deadlocks concurrent likers); a lost insert race gives the
+     * increment back. Runs at READ COMMITTED so the delete takes no gap lock, and
+     * is retried when it still loses a deadlock.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InteractionStatusDto toggleLike(Long postId, Long userId) {
+        if (userId == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
         }
-        Post post = postRepository.findByIdWithLock(postId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        log.debug("[LIKE] User={} Post={} currentLikes={}", user.getId(), postId, post.getLikesCount());
-
-        boolean exists = likeRepository.existsByPostIdAndUserId(postId, user.getId());
+        return inToggleTransaction(() -> like(postId, userId));
+    }
 
-        if (exists) {
-            log.debug("[LIKE] Already liked -> will unlike");
-            // Unlike
-            likeRepository.deleteByPostIdAndUserId(postId, user.getId());
-            postRepository.decrementLikesCount(postId);
-            log.debug("[LIKE] After unlike likesCount={}",
-                    postRepository.findById(postId).map(Post::getLikesCount).orElse(-1));
-            return getInteractionStatus(postId, user.getId(), false);
+    private InteractionStatusDto like(Long postId, Long userId) {
+        boolean liked;
+        if (likeRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            postCounterService.add(postId, PostCounterService.Counter.LIKES, -1);
+            liked = false;
         } else {
-            log.debug("[LIKE] Not liked yet -> will like");
-            // Like
-            Like like = new Like();
-            like.setPost(post);
-            like.setUser(user);
-            likeRepository.save(like);
-            postRepository.incrementLikesCount(postId);
-
-            // Send notification
-            if (!post.getAuthor().getId().equals(user.getId())) {
-                notificationService.createNotification(
-                        post.getAuthor().getId(),
-                        user.getId(),
-                        NotificationType.LIKE,
-                        postId);
+            if (!postCounterService.add(postId, PostCounterService.Counter.LIKES, 1)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
             }
+            liked = likeRepository.insertIfAbsent(postId, userId, LocalDateTime.now()) > 0;
+            if (!liked) {
+                postCounterService.add(postId, PostCounterService.Counter.LIKES, -1);
+            }
+        }
+        interactionSetCache.update(userId, InteractionSetCache.Relation.LIKES, postId, liked);
+        postDetailCache.evict(postId);
+        trendingScoreService.markDirty(postId);
 
-            log.debug("[LIKE] After like likesCount={}",
-                    postRepository.findById(postId).map(Post::getLikesCount).orElse(-1));
-            return getInteractionStatus(postId, user.getId(), true);
+        InteractionStatusDto status = new InteractionStatusDto();
+        Long authorId = readStatus(postId, userId, status);
+        log.debug("[LIKE] user={} post={} liked={} likesCount={}", userId, postId, liked, status.getLikesCount());
+        if (liked && !authorId.equals(userId)) {
+            notificationService.createNotification(authorId, userId, NotificationType.LIKE, postId);
         }
+        return status;
     }
 
-    @Transactional
-    public InteractionStatusDto toggleBookmark(Long postId, User user) {
-        if (user == null) {
+    /**
+     * Bookmarks or unbookmarks a post, the same way as {@link #toggleLike}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InteractionStatusDto toggleBookmark(Long postId, Long userId) {
+        if (userId == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
         }
-        Post post = postRepository.findByIdWithLock(postId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        log.debug("[BOOKMARK] User={} Post={} currentBookmarks={}", user.getId(), postId, post.getBookmarksCount());
-
-        boolean exists = bookmarkRepository.existsByPostIdAndUserId(postId, user.getId());
+        return inToggleTransaction(() -> bookmark(postId, userId));
+    }
 
-        if (exists) {
-            log.debug("[BOOKMARK] Already bookmarked -> will remove");
-            // Remove bookmark
-            bookmarkRepository.deleteByPostIdAndUserId(postId, user.getId());
-            postRepository.decrementBookmarksCount(postId);
-            log.debug("[BOOKMARK] After remove bookmarksCount={}",
-                    postRepository.findById(postId).map(Post::getBookmarksCount).orElse(-1));
-            return getInteractionStatus(postId, user.getId(), null);
+    private InteractionStatusDto bookmark(Long postId, Long userId) {
+        boolean bookmarked;
+        if (bookmarkRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            postCounterService.add(postId, PostCounterService.Counter.BOOKMARKS, -1);
+            bookmarked = false;
         } else {
-            log.debug("[BOOKMARK] Not bookmarked yet -> will add");
-            // Add bookmark
-            Bookmark bookmark = new Bookmark();
-            bookmark.setPost(post);
-            bookmark.setUser(user);
-            bookmarkRepository.save(bookmark);
-            postRepository.incrementBookmarksCount(postId);
-            log.debug("[BOOKMARK] After add bookmarksCount={}",
-                    postRepository.findById(postId).map(Post::getBookmarksCount).orElse(-1));
-            return getInteractionStatus(postId, user.getId(), null);
+            if (!postCounterService.add(postId, PostCounterService.Counter.BOOKMARKS, 1)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+            }
+            bookmarked = bookmarkRepository.insertIfAbsent(postId, userId, LocalDateTime.now()) > 0;
+            if (!bookmarked) {
+                postCounterService.add(postId, PostCounterService.Counter.BOOKMARKS, -1);
+            }
         }
+        interactionSetCache.update(userId, InteractionSetCache.Relation.BOOKMARKS, postId, bookmarked);
+        postDetailCache.evict(postId);
+        trendingScoreService.markDirty(postId);
+
+        InteractionStatusDto status = new InteractionStatusDto();
+        readStatus(postId, userId, status);
+        log.debug("[BOOKMARK] user={} post={} bookmarked={} bookmarksCount={}", userId, postId, bookmarked,
+                status.getBookmarksCount());
+        return status;
     }
 
-    public InteractionStatusDto getInteractionStatus(Long postId, Long userId, Boolean justLiked) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        log.debug("[STATUS] postId={} userId={} likes={} comments={} bookmarks={}", postId, userId,
-                post.getLikesCount(), post.getCommentsCount(), post.getBookmarksCount());
+    // Side effects all wait for the commit, so a rolled-back attempt leaves nothing behind
+    private InteractionStatusDto inToggleTransaction(Supplier<InteractionStatusDto> toggle) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return toggleTemplate.execute(status -> toggle.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_TOGGLE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Toggle lost a lock (attempt {}), retrying", attempt, e);
+            }
+        }
+    }
 
-        boolean liked = false;
-        boolean bookmarked = false;
+    public InteractionStatusDto getInteractionStatus(Long postId, Long userId) {
+        InteractionStatusDto status = new InteractionStatusDto();
+        readStatus(postId, userId, status);
+        return status;
+    }
 
-        if (userId != null) {
-            liked = justLiked != null ? justLiked : likeRepository.existsByPostIdAndUserId(postId, userId);
-            bookmarked = bookmarkRepository.existsByPostIdAndUserId(postId, userId);
+    /**
+     * Statuses of several posts, keyed by post id in request order, with one query
+     * for the counts; the user's flags come from {@link InteractionSetCache}.
+     * Posts that do not exist are left out. Runs without a transaction so a cache
+     * miss loads on the only connection taken.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<Long, InteractionStatusDto> getInteractionStatuses(List<Long> postIds, Long userId) {
+        if (postIds.size() > MAX_BATCH_STATUS_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_STATUS_IDS + " post ids per request");
+        }
+        Map<Long, InteractionStatusDto> statuses = new LinkedHashMap<>();
+        if (postIds.isEmpty()) {
+            return statuses;
         }
 
-        InteractionStatusDto status = new InteractionStatusDto();
-        status.setLiked(liked);
-        status.setBookmarked(bookmarked);
-        status.setLikesCount(post.getLikesCount());
-        status.setBookmarksCount(post.getBookmarksCount());
-        status.setCommentsCount(post.getCommentsCount());
+        Map<Long, InteractionStatusDto> byId = new HashMap<>();
+        for (Object[] row : postRepository.findInteractionCounts(postIds)) {
+            InteractionStatusDto status = new InteractionStatusDto();
+            status.setLikesCount(((Number) row[1]).intValue());
+            status.setBookmarksCount(((Number) row[2]).intValue());
+            status.setCommentsCount(((Number) row[3]).intValue());
+            byId.put(((Number) row[0]).longValue(), status);
+        }
+        if (userId != null && !byId.isEmpty()) {
+            interactionSetCache.retain(userId, InteractionSetCache.Relation.LIKES, byId.keySet())
+                    .forEach(postId -> byId.get(postId).setLiked(true));
+            interactionSetCache.retain(userId, InteractionSetCache.Relation.BOOKMARKS, byId.keySet())
+                    .forEach(postId -> byId.get(postId).setBookmarked(true));
+        }
+        for (Long postId : postIds) {
+            InteractionStatusDto status = byId.get(postId);
+            if (status != null) {
+                statuses.put(postId, status);
+            }
+        }
+        return statuses;
+    }
 
-        return status;
+    /**
+     * Sets the caller's liked/bookmarked flags on list cards from
+     * {@link InteractionSetCache}. The cards' counters are already current. Runs
+     * without a transaction, like {@link #getInteractionStatuses}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void attachStatus(List<PostListDto> cards, Long userId) {
+        if (cards.isEmpty() || userId == null) {
+            return;
+        }
+        Set<Long> postIds = cards.stream()
+                .map(PostListDto::getId)
+                .collect(Collectors.toSet());
+        Set<Long> liked = interactionSetCache.retain(userId, InteractionSetCache.Relation.LIKES, postIds);
+        Set<Long> bookmarked = interactionSetCache.retain(userId, InteractionSetCache.Relation.BOOKMARKS, postIds);
+        for (PostListDto card : cards) {
+            card.setLiked(liked.contains(card.getId()));
+            card.setBookmarked(bookmarked.contains(card.getId()));
+        }
+    }
+
+    // Fills the counts and the user's flags with one query; returns the post's author id
+    private Long readStatus(Long postId, Long userId, InteractionStatusDto status) {
+        List<Object[]> rows = postRepository.findInteractionStatus(postId, userId);
+        if (rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        Object[] row = rows.get(0);
+        status.setLikesCount(((Number) row[0]).intValue());
+        status.setBookmarksCount(((Number) row[1]).intValue());
+        status.setCommentsCount(((Number) row[2]).intValue());
+        status.setLiked(isTrue(row[4]));
+        status.setBookmarked(isTrue(row[5]));
+        return ((Number) row[3]).longValue();
+    }
+
+    // EXISTS comes back as a number from MySQL
+    private static boolean isTrue(Object value) {
+        return value instanceof Boolean ? (Boolean) value : value != null && ((Number) value).intValue() != 0;
     }
 
     public Page<PostListDto> getUserBookmarks(Long userId, Pageable pageable) {
-        Page<Bookmark> bookmarks = bookmarkRepository.findByUserIdWithPost(userId, pageable);
-
-        return bookmarks.map(bookmark -> {
-            Post post = bookmark.getPost();
-            PostListDto dto = new PostListDto();
-            dto.setId(post.getId());
-            dto.setTitle(post.getTitle());
-            dto.setSlug(post.getSlug());
-            dto.setCoverImageUrl(post.getCoverImageUrl());
-            dto.setStatus(post.getStatus());
-            dto.setViews(post.getViews());
-            dto.setLikesCount(post.getLikesCount());
-            dto.setCommentsCount(post.getCommentsCount());
-            dto.setBookmarksCount(post.getBookmarksCount());
-            dto.setPublishedAt(post.getPublishedAt());
-            dto.setCreatedAt(post.getCreatedAt());
-
-            if (post.getAuthor() != null) {
-                dto.setAuthorUsername(post.getAuthor().getUsername());
-                dto.setAuthorDisplayName(post.getAuthor().getDisplayName());
-                dto.setAuthorAvatarUrl(post.getAuthor().getAvatarUrl());
-            }
+        Page<Long> postIds = bookmarkRepository.findPostIdsByUserId(userId, pageable);
+        return new PageImpl<>(postService.getPostListDtos(postIds.getContent()), pageable,
+                postIds.getTotalElements());
+    }
 
-            if (post.getCategory() != null) {
-                dto.setCategoryName(post.getCategory().getName());
-            }
+    public CursorPage<PostListDto> scrollUserBookmarks(Long userId, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Object[]> rows = bookmarkRepository.findPostIdsByUserIdBefore(userId,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext && !rows.isEmpty()) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = CursorUtils.encode((LocalDateTime) last[1], (Long) last[0]);
+        }
 
-            return dto;
-        });
+        List<Long> postIds = rows.stream()
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+        return new CursorPage<>(postService.getPostListDtos(postIds), nextCursor, hasNext, size);
     }
 }
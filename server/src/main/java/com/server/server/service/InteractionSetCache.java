@@ -0,0 +1,193 @@
+package com.server.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.server.server.config.InteractionSetCacheProperties;
+import com.server.server.repository.BookmarkRepository;
+import com.server.server.repository.LikeRepository;
+import com.server.server.util.TransactionUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded in-process cache of the post ids each user has liked or bookmarked,
+ * held as compressed (Roaring) bitmaps, so "did I like these?" for a page of
+ * posts is answered in memory.
+ *
+ * Sets are loaded on first use and weighed by their estimated heap size; past
+ * {@code max-bytes} Caffeine evicts the least recently and frequently used ones.
+ * A user with more than {@code max-ids-per-user} ids is remembered as too large
+ * and answered from the database, so one heavy user can neither fill the cache
+ * nor load an unbounded result. {@link InteractionService} writes toggles through after
+ * commit; an entry still loading picks the change up once its load finishes.
+ * Readers call in without a transaction of their own.
+ */
+@Component
+public class InteractionSetCache {
+
+    public enum Relation {
+        LIKES("likes"),
+        BOOKMARKS("bookmarks");
+
+        private final String table;
+
+        Relation(String table) {
+            this.table = table;
+        }
+    }
+
+    // Fixed cost per entry (key, holder, cache node) on top of the bitmap itself
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final LikeRepository likeRepository;
+    private final BookmarkRepository bookmarkRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTemplate;
+    private final InteractionSetCacheProperties properties;
+    private final Cache<Key, PostIdSet> sets;
+
+    public InteractionSetCache(LikeRepository likeRepository,
+            BookmarkRepository bookmarkRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            InteractionSetCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.likeRepository = likeRepository;
+        this.bookmarkRepository = bookmarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // Callers hold no transaction, so a load reads a fresh snapshot; an older one
+        // could miss toggles whose write-through ran before the load started. A
+        // caller's transaction is joined rather than suspended, so a miss never
+        // holds a second pooled connection.
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setReadOnly(true);
+        this.sets = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes().toBytes())
+                .weigher((Key key, PostIdSet set) -> set.weight())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, sets, "interaction.sets");
+        Gauge.builder("interaction.sets.bytes", this, InteractionSetCache::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The subset of {@code postIds} in the user's liked or bookmarked set.
+     */
+    public Set<Long> retain(Long userId, Relation relation, Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        PostIdSet set = sets.get(new Key(userId, relation), this::load);
+        Set<Long> contained = set.retain(postIds);
+        if (contained != null) {
+            return contained;
+        }
+        return new HashSet<>(relation == Relation.LIKES
+                ? likeRepository.findPostIdsByUserIdAndPostIdIn(userId, postIds)
+                : bookmarkRepository.findPostIdsByUserIdAndPostIdIn(userId, postIds));
+    }
+
+    /**
+     * Records a toggle's outcome once the surrounding transaction commits. Users
+     * without a cached set are left alone; their next load reads the committed row.
+     */
+    public void update(Long userId, Relation relation, Long postId, boolean present) {
+        TransactionUtils.afterCommit(() -> sets.asMap().computeIfPresent(new Key(userId, relation),
+                (key, set) -> {
+                    set.set(postId, present);
+                    // Returned so the cache re-weighs the entry
+                    return set;
+                }));
+    }
+
+    public long estimatedBytes() {
+        return sets.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private PostIdSet load(Key key) {
+        return loadTemplate.execute(status -> {
+            // One row past the cap is enough to tell the set is too large
+            Roaring64Bitmap bitmap = new Roaring64Bitmap();
+            int[] loaded = { 0 };
+            jdbcTemplate.query("SELECT post_id FROM " + key.getRelation().table + " WHERE user_id = :userId LIMIT :limit",
+                    Map.of("userId", key.getUserId(), "limit", properties.getMaxIdsPerUser() + 1),
+                    row -> {
+                        bitmap.addLong(row.getLong(1));
+                        loaded[0]++;
+                    });
+            if (loaded[0] > properties.getMaxIdsPerUser()) {
+                return new PostIdSet(null);
+            }
+            bitmap.runOptimize();
+            return new PostIdSet(bitmap);
+        });
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Key {
+        private Long userId;
+        private Relation relation;
+    }
+
+    /**
+     * One user's set; a null bitmap marks a user too large to cache.
+     */
+    private static class PostIdSet {
+        private final Roaring64Bitmap bitmap;
+
+        PostIdSet(Roaring64Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        // Null when the set is not cached
+        synchronized Set<Long> retain(Collection<Long> postIds) {
+            if (bitmap == null) {
+                return null;
+            }
+            Set<Long> contained = new HashSet<>();
+            for (Long postId : postIds) {
+                if (bitmap.contains(postId)) {
+                    contained.add(postId);
+                }
+            }
+            return contained;
+        }
+
+        synchronized void set(Long postId, boolean present) {
+            if (bitmap == null) {
+                return;
+            }
+            if (present) {
+                bitmap.addLong(postId);
+            } else {
+                bitmap.removeLong(postId);
+            }
+        }
+
+        synchronized int weight() {
+            long bytes = bitmap != null ? bitmap.getLongSizeInBytes() : 0;
+            return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + bytes);
+        }
+    }
+}
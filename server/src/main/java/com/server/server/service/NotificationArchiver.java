@@ -0,0 +1,104 @@
+package com.server.server.service;
+
+import com.server.server.config.NotificationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retention for notifications. Read notifications older than
+ * {@code read-retention} move to {@code notifications_archive}, which keeps
+ * the inbox table (and its indexes) down to unread and recent rows. Archived
+ * rows are deleted after {@code archive-retention}. Unread notifications are
+ * never moved, so the unread counters are not affected.
+ *
+ * Both steps work in small batches, one short transaction each with a pause in
+ * between, and a capped number of batches per run. A backlog is worked off over
+ * several runs and never holds locks the notification writers wait on for long.
+ */
+@Slf4j
+@Component
+public class NotificationArchiver {
+
+    private static final String COLUMNS =
+            "id, recipient_id, actor_id, type, entity_id, message, actor_count, recent_actor_ids, created_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationProperties properties;
+
+    public NotificationArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            NotificationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.archive-interval:PT5M}")
+    public void archive() {
+        try {
+            long archived = archiveRead();
+            long purged = purgeArchive();
+            if (archived > 0 || purged > 0) {
+                log.info("Archived {} read notifications and purged {} archived ones", archived, purged);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long archiveRead() throws InterruptedException {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getReadRetention()));
+        int batchSize = properties.getArchiveBatchSize();
+        long archived = 0;
+        for (int i = 0; i < properties.getArchiveMaxBatches(); i++) {
+            int moved = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM notifications WHERE is_read = TRUE AND created_at < :cutoff LIMIT :limit",
+                        Map.of("cutoff", cutoff, "limit", batchSize), Long.class);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                // INSERT IGNORE: a row copied by a run that failed before its delete is not copied twice
+                jdbcTemplate.update("INSERT IGNORE INTO notifications_archive (" + COLUMNS + ", archived_at) " +
+                        "SELECT " + COLUMNS + ", :now FROM notifications WHERE id IN (:ids)",
+                        Map.of("ids", ids, "now", Timestamp.valueOf(LocalDateTime.now())));
+                jdbcTemplate.update("DELETE FROM notifications WHERE id IN (:ids)", Map.of("ids", ids));
+                return ids.size();
+            });
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            Thread.sleep(properties.getArchivePause().toMillis());
+        }
+        return archived;
+    }
+
+    private long purgeArchive() throws InterruptedException {
+        if (properties.getArchiveRetention().isZero()) {
+            return 0;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getArchiveRetention()));
+        long deleted = 0;
+        for (int i = 0; i < properties.getArchiveMaxBatches(); i++) {
+            int batch = jdbcTemplate.update("DELETE FROM notifications_archive WHERE archived_at < :cutoff LIMIT :limit",
+                    Map.of("cutoff", cutoff, "limit", properties.getArchiveBatchSize()));
+            deleted += batch;
+            if (batch < properties.getArchiveBatchSize()) {
+                break;
+            }
+            Thread.sleep(properties.getArchivePause().toMillis());
+        }
+        return deleted;
+    }
+}
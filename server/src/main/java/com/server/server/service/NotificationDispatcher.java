@@ -0,0 +1,554 @@
+package com.server.server.service;
+
+import com.server.server.config.NotificationProperties;
+import com.server.server.domain.NotificationType;
+import com.server.server.domain.User;
+import com.server.server.dto.NotificationDto;
+import com.server.server.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes and pushes notifications off the request thread. {@link NotificationService}
+ * hands each notification over once the triggering transaction commits; a small
+ * pool of workers drains the bounded queues in batches, writes the
+ * {@code notifications} rows with JDBC batches in one transaction per batch and
+ * then pushes them to their recipients' {@code /queue/notifications}.
+ *
+ * Likes, comments and follows are coalesced: one on the same (recipient, type,
+ * entity) as an unread row younger than {@code coalesce-window} is folded into
+ * that row (actor count, latest actors) instead of adding a row. A new row is
+ * pushed right away; a row that grows is pushed again at most once per
+ * {@code push-interval}. Each recipient is hashed to one worker so a group is
+ * never written by two workers at once.
+ *
+ * When a queue is full the committing thread waits at most
+ * {@code enqueue-timeout} for room, then drops the notification and counts it,
+ * so likes and comments never stall on notification delivery. It never writes
+ * the row itself: a second writer for a recipient its worker is writing for
+ * can deadlock with it (the foreign-key check share-locks the users row that
+ * the unread counter update then locks exclusively). Only once the workers
+ * have stopped are notifications written on the calling thread. A batch that
+ * fails is retried a few times, then given up on.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_RECENT_ACTORS = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationProperties properties;
+    private final UnreadNotificationCounter unreadCounter;
+
+    private final List<BlockingQueue<PendingNotification>> queues = new ArrayList<>();
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+    // Serializes the writes made on calling threads once the workers have stopped
+    private final Object stoppedWriteLock = new Object();
+    // Grown rows waiting for the next push, latest version per notification id
+    private final Map<Long, Delivery> deferredPushes = new ConcurrentHashMap<>();
+
+    private final Counter deliveredCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+    private final Counter pushCounter;
+    private final Timer batchTimer;
+
+    public NotificationDispatcher(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UserRepository userRepository,
+            SimpMessagingTemplate messagingTemplate,
+            NotificationProperties properties,
+            UnreadNotificationCounter unreadCounter,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.unreadCounter = unreadCounter;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            queues.add(new ArrayBlockingQueue<>(properties.getQueueCapacity()));
+        }
+
+        Gauge.builder("notifications.queue.depth", queues, all -> all.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Notifications waiting for a worker")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("notifications.delivered").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("notifications.coalesced")
+                .description("Notifications folded into an existing row")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("notifications.dropped")
+                .description("Notifications given up on after repeated write failures")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("notifications.overflow")
+                .description("Notifications dropped because their queue stayed full past the enqueue timeout")
+                .register(meterRegistry);
+        this.pushCounter = Counter.builder("notifications.pushes").register(meterRegistry);
+        this.batchTimer = Timer.builder("notifications.batch").register(meterRegistry);
+
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "notification-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (BlockingQueue<PendingNotification> queue : queues) {
+            workers.execute(() -> work(queue));
+        }
+    }
+
+    /**
+     * Queues a notification on its recipient's worker, waiting at most
+     * {@code enqueue-timeout} while that queue is full and dropping it after;
+     * call once the triggering transaction has committed.
+     */
+    public void dispatch(Long recipientId, Long actorId, NotificationType type, Long entityId, String message) {
+        PendingNotification notification = new PendingNotification(recipientId, actorId, type, entityId,
+                message, LocalDateTime.now(), 0);
+        if (!running) {
+            writeAfterStop(notification);
+            return;
+        }
+        try {
+            if (queueOf(recipientId).offer(notification, properties.getEnqueueTimeout().toMillis(),
+                    TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        overflowCounter.increment();
+        log.debug("Notification queue full, dropped {} for user {}", type, recipientId);
+    }
+
+    /**
+     * Sends the latest version of every coalesced row that grew since the last run.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.push-interval:PT10S}")
+    public void flushPushes() {
+        for (Long notificationId : new ArrayList<>(deferredPushes.keySet())) {
+            Delivery delivery = deferredPushes.remove(notificationId);
+            if (delivery != null) {
+                push(delivery);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        synchronized (stoppedWriteLock) {
+            drain();
+        }
+        flushPushes();
+    }
+
+    // Writes whatever is still queued on the calling thread; only once the workers have stopped
+    private void drain() {
+        for (BlockingQueue<PendingNotification> queue : queues) {
+            List<PendingNotification> batch = new ArrayList<>();
+            while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+                writeBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    // A dispatch that raced shutdown: waits for the workers to stop, then writes alongside the drain
+    private void writeAfterStop(PendingNotification notification) {
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (stoppedWriteLock) {
+            writeBatch(List.of(notification));
+        }
+    }
+
+    private BlockingQueue<PendingNotification> queueOf(Long recipientId) {
+        return queues.get(Math.floorMod(recipientId.hashCode(), queues.size()));
+    }
+
+    private void work(BlockingQueue<PendingNotification> queue) {
+        while (running) {
+            List<PendingNotification> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Whatever else is already waiting rides along in the same batch
+            queue.drainTo(batch, properties.getBatchSize() - 1);
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<PendingNotification> batch) {
+        List<Delivery> deliveries;
+        try {
+            deliveries = batchTimer.record(() -> transactionTemplate.execute(status -> write(batch)));
+        } catch (RuntimeException e) {
+            log.error("Writing {} notifications failed", batch.size(), e);
+            requeue(batch);
+            return;
+        }
+        // Pushed only once the rows are committed, so a client can act on the id right away
+        for (Delivery delivery : deliveries) {
+            if (delivery.isGrown()) {
+                deferredPushes.put(delivery.getNotification().getId(), delivery);
+            } else {
+                push(delivery);
+            }
+        }
+        deliveredCounter.increment(batch.size());
+    }
+
+    private void push(Delivery delivery) {
+        try {
+            messagingTemplate.convertAndSendToUser(delivery.getUsername(), "/queue/notifications",
+                    delivery.getNotification());
+            pushCounter.increment();
+        } catch (RuntimeException e) {
+            log.warn("Pushing notification {} failed", delivery.getNotification().getId(), e);
+        }
+    }
+
+    private List<Delivery> write(List<PendingNotification> batch) {
+        Set<Long> userIds = new HashSet<>();
+        for (PendingNotification notification : batch) {
+            userIds.add(notification.getRecipientId());
+            if (notification.getActorId() != null) {
+                userIds.add(notification.getActorId());
+            }
+        }
+        Map<Long, User> users = new HashMap<>(userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity())));
+
+        // Recipients deleted since the event are skipped, deleted actors cleared,
+        // as the foreign keys would have done to an existing row
+        List<PendingNotification> live = batch.stream()
+                .filter(notification -> users.containsKey(notification.getRecipientId()))
+                .collect(Collectors.toList());
+        if (live.isEmpty()) {
+            return List.of();
+        }
+
+        Map<GroupKey, Group> openGroups = findOpenGroups(live.stream()
+                .filter(notification -> coalescible(notification, users))
+                .map(PendingNotification::getRecipientId)
+                .collect(Collectors.toSet()));
+        Map<GroupKey, Group> groups = new LinkedHashMap<>();
+        List<Group> written = new ArrayList<>();
+        for (PendingNotification notification : live) {
+            if (!coalescible(notification, users)) {
+                Group single = new Group(null, notification, false);
+                single.add(notification, users.containsKey(notification.getActorId()) ? notification.getActorId() : null);
+                written.add(single);
+                continue;
+            }
+            GroupKey key = new GroupKey(notification.getRecipientId(), notification.getType(),
+                    notification.getEntityId());
+            Group group = groups.get(key);
+            boolean folded = true;
+            if (group == null) {
+                group = openGroups.get(key);
+                if (group == null) {
+                    group = new Group(null, notification, false);
+                    folded = false;
+                }
+                groups.put(key, group);
+                written.add(group);
+            }
+            if (folded) {
+                coalescedCounter.increment();
+            }
+            group.add(notification, notification.getActorId());
+        }
+
+        List<Group> grown = written.stream().filter(group -> group.getId() != null).collect(Collectors.toList());
+        if (!grown.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(
+                    "UPDATE notifications SET actor_id = :actorId, actor_count = :actorCount, " +
+                            "recent_actor_ids = :recentActorIds WHERE id = :id AND is_read = FALSE",
+                    grown.stream()
+                            .map(group -> new MapSqlParameterSource()
+                                    .addValue("id", group.getId())
+                                    .addValue("actorId", group.latestActor())
+                                    .addValue("actorCount", group.getActorCount())
+                                    .addValue("recentActorIds", group.recentActorIds()))
+                            .toArray(SqlParameterSource[]::new));
+            // A row read since it was looked up stays as read; this batch's actors start a new one
+            for (int i = 0; i < grown.size(); i++) {
+                if (updated[i] == 0) {
+                    Group reopened = grown.get(i).reopen();
+                    for (int j = 0; j < written.size(); j++) {
+                        if (written.get(j) == grown.get(i)) {
+                            written.set(j, reopened);
+                        }
+                    }
+                }
+            }
+        }
+        List<Group> created = written.stream().filter(group -> group.getId() == null).collect(Collectors.toList());
+        if (!created.isEmpty()) {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO notifications (recipient_id, actor_id, type, entity_id, message, is_read, " +
+                            "created_at, actor_count, recent_actor_ids) VALUES (:recipientId, :actorId, :type, " +
+                            ":entityId, :message, FALSE, :createdAt, :actorCount, :recentActorIds)",
+                    created.stream()
+                            .map(group -> new MapSqlParameterSource()
+                                    .addValue("recipientId", group.getRecipientId())
+                                    .addValue("actorId", group.latestActor())
+                                    .addValue("type", group.getType().name())
+                                    .addValue("entityId", group.getEntityId())
+                                    .addValue("message", group.getMessage())
+                                    .addValue("createdAt", Timestamp.valueOf(group.getCreatedAt()))
+                                    .addValue("actorCount", group.getActorCount())
+                                    .addValue("recentActorIds", group.recentActorIds()))
+                            .toArray(SqlParameterSource[]::new),
+                    keys, new String[] { "id" });
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < created.size(); i++) {
+                created.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            }
+        }
+        // Every new row is one more unread notification for its recipient
+        unreadCounter.add(created.stream()
+                .collect(Collectors.toMap(Group::getRecipientId, group -> 1, Integer::sum)));
+
+        // Actors of open rows loaded from the database may not be in the batch
+        Set<Long> missing = written.stream()
+                .flatMap(group -> group.getRecentActors().stream())
+                .filter(actorId -> !users.containsKey(actorId))
+                .collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            userRepository.findAllById(missing).forEach(user -> users.put(user.getId(), user));
+        }
+        return written.stream()
+                .map(group -> new Delivery(users.get(group.getRecipientId()).getUsername(),
+                        toDto(group, users), group.isExisting()))
+                .collect(Collectors.toList());
+    }
+
+    // System messages and notifications whose actor is gone always get their own row
+    private static boolean coalescible(PendingNotification notification, Map<Long, User> users) {
+        return notification.getMessage() == null && notification.getType() != NotificationType.ROLE_CHANGE
+                && users.containsKey(notification.getActorId());
+    }
+
+    private Map<GroupKey, Group> findOpenGroups(Set<Long> recipientIds) {
+        Map<GroupKey, Group> open = new HashMap<>();
+        if (recipientIds.isEmpty()) {
+            return open;
+        }
+        LocalDateTime since = LocalDateTime.now().minus(properties.getCoalesceWindow());
+        // Oldest first, so the newest row of a group is the one kept
+        jdbcTemplate.query(
+                "SELECT id, recipient_id, type, entity_id, created_at, actor_id, actor_count, recent_actor_ids " +
+                        "FROM notifications WHERE recipient_id IN (:recipientIds) AND is_read = FALSE " +
+                        "AND created_at >= :since AND message IS NULL AND actor_id IS NOT NULL " +
+                        "ORDER BY created_at, id",
+                Map.of("recipientIds", recipientIds, "since", Timestamp.valueOf(since)),
+                row -> {
+                    NotificationType type;
+                    try {
+                        type = NotificationType.valueOf(row.getString("type"));
+                    } catch (IllegalArgumentException e) {
+                        return;
+                    }
+                    long entityId = row.getLong("entity_id");
+                    GroupKey key = new GroupKey(row.getLong("recipient_id"), type, row.wasNull() ? null : entityId);
+                    Group group = new Group(row.getLong("id"), new PendingNotification(key.getRecipientId(),
+                            null, type, key.getEntityId(), null,
+                            row.getTimestamp("created_at").toLocalDateTime(), 0), true);
+                    group.setActorCount(row.getInt("actor_count"));
+                    String recent = row.getString("recent_actor_ids");
+                    if (recent != null && !recent.isBlank()) {
+                        Arrays.stream(recent.split(",")).map(Long::valueOf).forEach(group.getRecentActors()::add);
+                    } else {
+                        group.getRecentActors().add(row.getLong("actor_id"));
+                    }
+                    open.put(key, group);
+                });
+        return open;
+    }
+
+    private static NotificationDto toDto(Group group, Map<Long, User> users) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(group.getId());
+        dto.setType(group.getType().name());
+        dto.setEntityId(group.getEntityId());
+        dto.setMessage(group.getMessage());
+        dto.setRead(false);
+        dto.setCreatedAt(group.getCreatedAt());
+        User actor = group.latestActor() != null ? users.get(group.latestActor()) : null;
+        if (actor != null) {
+            dto.setActorId(actor.getId());
+            dto.setActorName(actor.getDisplayName());
+            dto.setActorUsername(actor.getUsername());
+            dto.setActorAvatarUrl(actor.getAvatarUrl());
+        }
+        dto.setActorCount(group.getActorCount());
+        dto.setRecentActorNames(group.getRecentActors().stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(user -> user.getDisplayName() != null ? user.getDisplayName() : user.getUsername())
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private void requeue(List<PendingNotification> batch) {
+        for (PendingNotification notification : batch) {
+            // A batch that keeps failing is given up on rather than retried forever
+            if (++notification.attempts > MAX_ATTEMPTS || !running
+                    || !queueOf(notification.getRecipientId()).offer(notification)) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class PendingNotification {
+        private Long recipientId;
+        private Long actorId;
+        private NotificationType type;
+        private Long entityId;
+        private String message;
+        private LocalDateTime createdAt;
+        private int attempts;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class GroupKey {
+        private Long recipientId;
+        private NotificationType type;
+        private Long entityId;
+    }
+
+    /**
+     * One row being written: a new row (null id) or an open one being grown.
+     */
+    @Data
+    private static class Group {
+        private Long id;
+        private Long recipientId;
+        private NotificationType type;
+        private Long entityId;
+        private String message;
+        private LocalDateTime createdAt;
+        private boolean existing;
+        private int actorCount;
+        // Newest first
+        private LinkedList<Long> recentActors = new LinkedList<>();
+        // Notifications folded in by the current batch
+        private List<PendingNotification> added = new ArrayList<>();
+
+        Group(Long id, PendingNotification first, boolean existing) {
+            this.id = id;
+            this.recipientId = first.getRecipientId();
+            this.type = first.getType();
+            this.entityId = first.getEntityId();
+            this.message = first.getMessage();
+            this.createdAt = first.getCreatedAt();
+            this.existing = existing;
+        }
+
+        // Only actors missing from the recent list are counted again, so a repeat
+        // from someone just seen does not inflate the count
+        void add(PendingNotification notification, Long actorId) {
+            added.add(notification);
+            addActor(actorId);
+        }
+
+        // A new row holding only what this batch folded in
+        Group reopen() {
+            Group group = new Group(null, added.get(0), false);
+            added.forEach(notification -> group.add(notification, notification.getActorId()));
+            return group;
+        }
+
+        private void addActor(Long actorId) {
+            if (actorId == null) {
+                if (actorCount == 0) {
+                    actorCount = 1;
+                }
+                return;
+            }
+            if (!recentActors.remove(actorId)) {
+                actorCount++;
+            }
+            recentActors.addFirst(actorId);
+            while (recentActors.size() > MAX_RECENT_ACTORS) {
+                recentActors.removeLast();
+            }
+        }
+
+        Long latestActor() {
+            return recentActors.peekFirst();
+        }
+
+        String recentActorIds() {
+            return recentActors.isEmpty() ? null
+                    : recentActors.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Delivery {
+        private String username;
+        private NotificationDto notification;
+        // Pushed on the next flushPushes rather than right away
+        private boolean grown;
+    }
+}
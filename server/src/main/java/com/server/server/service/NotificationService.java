@@ -6,99 +6,123 @@ import com.server.server.domain.User;
 import com.server.server.dto.NotificationDto;
 import com.server.server.repository.NotificationRepository;
 import com.server.server.repository.UserRepository;
+import com.server.server.util.TransactionUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @Transactional(readOnly = true)
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UnreadNotificationCounter unreadCounter;
 
     public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
-            org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate) {
+            NotificationDispatcher notificationDispatcher, UnreadNotificationCounter unreadCounter) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.notificationDispatcher = notificationDispatcher;
+        this.unreadCounter = unreadCounter;
     }
 
-    @Transactional
+    /**
+     * Hands the notification to {@link NotificationDispatcher} once the caller's
+     * transaction commits, so neither the insert nor the push runs while the
+     * caller still holds its locks, and a rolled-back action notifies nobody.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void createNotification(Long recipientId, Long actorId, NotificationType type, Long entityId) {
         if (recipientId.equals(actorId)) {
             return; // Don't notify self
         }
-
-        User recipient = userRepository.findById(recipientId).orElseThrow();
-        User actor = userRepository.findById(actorId).orElseThrow();
-
-        Notification notification = new Notification();
-        notification.setRecipient(recipient);
-        notification.setActor(actor);
-        notification.setType(type);
-        notification.setEntityId(entityId);
-
-        Notification savedNotification = notificationRepository.save(notification);
-
-        // Send realtime notification
-        NotificationDto dto = mapToDto(savedNotification);
-        messagingTemplate.convertAndSendToUser(
-                recipient.getUsername(),
-                "/queue/notifications",
-                dto);
+        TransactionUtils.afterCommit(
+                () -> notificationDispatcher.dispatch(recipientId, actorId, type, entityId, null));
     }
 
-    @Transactional
+    // System notification - no actor
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void createSystemNotification(Long recipientId, NotificationType type, String message) {
-        User recipient = userRepository.findById(recipientId).orElseThrow();
-
-        Notification notification = new Notification();
-        notification.setRecipient(recipient);
-        notification.setActor(null); // System notification - no actor
-        notification.setType(type);
-        notification.setMessage(message);
-
-        Notification savedNotification = notificationRepository.save(notification);
-
-        // Send realtime notification
-        NotificationDto dto = mapToDto(savedNotification);
-        messagingTemplate.convertAndSendToUser(
-                recipient.getUsername(),
-                "/queue/notifications",
-                dto);
+        TransactionUtils.afterCommit(
+                () -> notificationDispatcher.dispatch(recipientId, null, type, null, message));
     }
 
     public Page<NotificationDto> getUserNotifications(Long userId, Pageable pageable) {
-        return notificationRepository.findByRecipientIdOrderByCreatedAtDesc(userId, pageable)
-                .map(this::mapToDto);
+        Page<Notification> page = notificationRepository.findByRecipientIdOrderByCreatedAtDesc(userId, pageable);
+        // One lookup for the latest actors of every coalesced row on the page
+        Set<Long> actorIds = page.getContent().stream()
+                .flatMap(notification -> recentActorIds(notification).stream())
+                .collect(Collectors.toSet());
+        Map<Long, User> actors = actorIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(actorIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+        return page.map(notification -> mapToDto(notification, actors));
     }
 
+    // Without a transaction, so a cache miss loads on the only connection taken
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByRecipientIdAndIsReadFalse(userId);
+        return unreadCounter.get(userId);
     }
 
     @Transactional
     public void markAsRead(Long notificationId, Long userId) {
+        if (markAsRead(List.of(notificationId), userId) > 0) {
+            return;
+        }
+        // Nothing changed: already read, someone else's, or missing
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
         if (!notification.getRecipient().getId().equals(userId)) {
             throw new RuntimeException("Unauthorized");
         }
+    }
 
-        notification.setRead(true);
-        notificationRepository.save(notification);
+    /**
+     * Marks the user's notifications among {@code notificationIds} as read with a
+     * single update; ids of other users' notifications are ignored.
+     *
+     * @return how many were unread
+     */
+    @Transactional
+    public int markAsRead(Collection<Long> notificationIds, Long userId) {
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        int marked = notificationRepository.markAsRead(notificationIds, userId);
+        unreadCounter.add(Map.of(userId, -marked));
+        return marked;
     }
 
     @Transactional
     public void markAllAsRead(Long userId) {
-        notificationRepository.markAllAsRead(userId);
+        int marked = notificationRepository.markAllAsRead(userId);
+        unreadCounter.add(Map.of(userId, -marked));
+    }
+
+    private static List<Long> recentActorIds(Notification notification) {
+        String ids = notification.getRecentActorIds();
+        if (ids == null || ids.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toList());
     }
 
-    private NotificationDto mapToDto(Notification notification) {
+    private NotificationDto mapToDto(Notification notification, Map<Long, User> actors) {
         NotificationDto dto = new NotificationDto();
         dto.setId(notification.getId());
         dto.setType(notification.getType().name());
@@ -113,6 +137,12 @@ public class NotificationService {
             dto.setActorUsername(notification.getActor().getUsername());
             dto.setActorAvatarUrl(notification.getActor().getAvatarUrl());
         }
+        dto.setActorCount(notification.getActorCount());
+        dto.setRecentActorNames(recentActorIds(notification).stream()
+                .map(actors::get)
+                .filter(Objects::nonNull)
+                .map(user -> user.getDisplayName() != null ? user.getDisplayName() : user.getUsername())
+                .collect(Collectors.toList()));
 
         return dto;
     }
@@ -0,0 +1,283 @@
+package com.server.server.service;
+
+import com.server.server.config.CounterProperties;
+import com.server.server.repository.PostRepository;
+import com.server.server.util.TransactionUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the view, like, comment and bookmark counters of posts.
+ *
+ * In {@code DIRECT} mode a write updates the counter column on the posts row, so
+ * all writers to one post queue on its row lock. In {@code SHARDED} mode a write
+ * adds to one of several {@code post_counters} rows of the post, picked at
+ * random; reads add {@link #getPending pending} shard sums to the posts columns,
+ * and a compaction job folds them back into posts. Compaction runs in either
+ * mode, so switching back to DIRECT drains what is left.
+ *
+ * Lock order: writers take their shard row before inserting rows that reference
+ * the post (likes, comments, views), whose foreign-key check takes a shared lock
+ * on the posts row; compaction locks the shards before updating posts. Callers
+ * must therefore add to the counter before such inserts in the same transaction.
+ */
+@Slf4j
+@Service
+public class PostCounterService {
+
+    public enum Counter {
+        VIEWS("views"),
+        LIKES("likes_count"),
+        COMMENTS("comments_count"),
+        BOOKMARKS("bookmarks_count");
+
+        private final String column;
+
+        Counter(String column) {
+            this.column = column;
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CounterProperties properties;
+
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+
+    public PostCounterService(PostRepository postRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CounterProperties properties) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Adds {@code delta} to a like, comment or bookmark counter in the caller's
+     * transaction. Returns false when the post does not exist. Decrements never
+     * take a DIRECT counter below zero.
+     */
+    public boolean add(Long postId, Counter counter, int delta) {
+        if (properties.getMode() == CounterProperties.Mode.DIRECT) {
+            return addDirect(postId, counter, delta);
+        }
+        String sql = "UPDATE post_counters SET " + counter.column + " = " + counter.column + " + :delta " +
+                "WHERE post_id = :postId AND shard = :shard";
+        Map<String, Object> params = Map.of("delta", delta, "postId", postId, "shard", randomShard());
+        if (jdbcTemplate.update(sql, params) == 0) {
+            createShards(List.of(postId));
+            if (jdbcTemplate.update(sql, params) == 0) {
+                return false;
+            }
+        }
+        markDirty(postId);
+        return true;
+    }
+
+    private boolean addDirect(Long postId, Counter counter, int delta) {
+        switch (counter) {
+            case LIKES:
+                if (delta > 0) {
+                    return postRepository.incrementLikesCount(postId) > 0;
+                }
+                postRepository.decrementLikesCount(postId);
+                return true;
+            case BOOKMARKS:
+                if (delta > 0) {
+                    return postRepository.incrementBookmarksCount(postId) > 0;
+                }
+                postRepository.decrementBookmarksCount(postId);
+                return true;
+            case COMMENTS:
+                if (delta > 0) {
+                    return postRepository.incrementCommentsCount(postId, delta) > 0;
+                }
+                postRepository.decrementCommentsCount(postId, -delta);
+                return true;
+            default:
+                throw new IllegalArgumentException("Views are added with addViews");
+        }
+    }
+
+    /**
+     * Adds flushed view deltas (post id to views), in the caller's transaction.
+     * Posts that no longer exist are skipped.
+     */
+    public void addViews(Map<Long, Integer> deltas) {
+        // Sorted so concurrent flushes (other instances) lock rows in the same order
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(new TreeMap<>(deltas).entrySet());
+        if (properties.getMode() == CounterProperties.Mode.DIRECT) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate("UPDATE posts SET views = views + ? WHERE id = ?",
+                    entries.stream()
+                            .map(delta -> new Object[] { delta.getValue(), delta.getKey() })
+                            .collect(Collectors.toList()));
+            return;
+        }
+
+        // Batched update counts are not reliable with rewritten batches, so shard rows
+        // are created up front instead of on a zero count
+        Set<Long> withShards = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT post_id FROM post_counters WHERE post_id IN (:ids) GROUP BY post_id HAVING COUNT(*) >= :shards",
+                Map.of("ids", deltas.keySet(), "shards", properties.getShards()), Long.class));
+        List<Long> missing = entries.stream()
+                .map(Map.Entry::getKey)
+                .filter(postId -> !withShards.contains(postId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            createShards(missing);
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE post_counters SET views = views + ? WHERE post_id = ? AND shard = ?",
+                entries.stream()
+                        .map(delta -> new Object[] { delta.getValue(), delta.getKey(), randomShard() })
+                        .collect(Collectors.toList()));
+        entries.forEach(delta -> markDirty(delta.getKey()));
+    }
+
+    // Creates all shard rows of the posts that exist; rows already there are kept
+    private void createShards(Collection<Long> postIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long postId : postIds) {
+            for (int shard = 0; shard < properties.getShards(); shard++) {
+                rows.add(new Object[] { shard, postId });
+            }
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT IGNORE INTO post_counters (post_id, shard, views, likes_count, comments_count, bookmarks_count) " +
+                        "SELECT id, ?, 0, 0, 0, 0 FROM posts WHERE id = ?",
+                rows);
+    }
+
+    private int randomShard() {
+        return ThreadLocalRandom.current().nextInt(properties.getShards());
+    }
+
+    private void markDirty(Long postId) {
+        TransactionUtils.afterCommit(() -> dirtyPostIds.add(postId));
+    }
+
+    /**
+     * Shard sums not yet compacted into posts, for the posts that have any. Always
+     * empty in DIRECT mode, where leftovers from SHARDED mode are compacted within
+     * one interval.
+     */
+    public Map<Long, PendingCounts> getPending(Collection<Long> postIds) {
+        Map<Long, PendingCounts> pending = new HashMap<>();
+        if (postIds.isEmpty() || properties.getMode() == CounterProperties.Mode.DIRECT) {
+            return pending;
+        }
+        jdbcTemplate.query("SELECT post_id, SUM(views), SUM(likes_count), SUM(comments_count), SUM(bookmarks_count) " +
+                        "FROM post_counters WHERE post_id IN (:ids) GROUP BY post_id",
+                Map.of("ids", postIds),
+                row -> {
+                    pending.put(row.getLong(1), new PendingCounts(row.getLong(2), row.getInt(3), row.getInt(4),
+                            row.getInt(5)));
+                });
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.compact-interval:PT30S}")
+    public void compact() {
+        List<Long> batch = new ArrayList<>();
+        for (Long postId : dirtyPostIds) {
+            dirtyPostIds.remove(postId);
+            batch.add(postId);
+            if (batch.size() == properties.getCompactBatchSize()) {
+                compactBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            compactBatch(batch);
+        }
+    }
+
+    /**
+     * Compacts every post with non-zero shards, including those written by other
+     * instances, which this instance's dirty set does not know about.
+     */
+    @Scheduled(initialDelayString = "${app.counters.sweep-initial-delay:PT1M}",
+            fixedDelayString = "${app.counters.sweep-interval:PT1H}")
+    public void sweep() {
+        long afterId = 0;
+        List<Long> postIds;
+        while (!(postIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT post_id FROM post_counters WHERE post_id > :afterId " +
+                        "AND (views <> 0 OR likes_count <> 0 OR comments_count <> 0 OR bookmarks_count <> 0) " +
+                        "ORDER BY post_id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", properties.getCompactBatchSize()), Long.class)).isEmpty()) {
+            compactBatch(postIds);
+            afterId = postIds.get(postIds.size() - 1);
+        }
+    }
+
+    private void compactBatch(List<Long> postIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> fold(postIds));
+        } catch (RuntimeException e) {
+            log.warn("Compacting counters of {} posts failed, retrying on the next run", postIds.size(), e);
+            dirtyPostIds.addAll(postIds);
+        }
+    }
+
+    private void fold(List<Long> postIds) {
+        // Shards first, then posts: the same order writers lock them in
+        Map<Long, long[]> totals = new TreeMap<>();
+        jdbcTemplate.query("SELECT post_id, views, likes_count, comments_count, bookmarks_count FROM post_counters " +
+                        "WHERE post_id IN (:ids) ORDER BY post_id, shard FOR UPDATE",
+                Map.of("ids", postIds),
+                row -> {
+                    long[] sums = totals.computeIfAbsent(row.getLong(1), id -> new long[4]);
+                    for (int i = 0; i < 4; i++) {
+                        sums[i] += row.getLong(i + 2);
+                    }
+                });
+        List<Object[]> updates = new ArrayList<>();
+        totals.forEach((postId, sums) -> {
+            if (sums[0] != 0 || sums[1] != 0 || sums[2] != 0 || sums[3] != 0) {
+                updates.add(new Object[] { sums[0], sums[1], sums[2], sums[3], postId });
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE posts SET views = GREATEST(views + ?, 0), likes_count = GREATEST(likes_count + ?, 0), " +
+                        "comments_count = GREATEST(comments_count + ?, 0), " +
+                        "bookmarks_count = GREATEST(bookmarks_count + ?, 0) WHERE id = ?",
+                updates);
+        jdbcTemplate.update("UPDATE post_counters SET views = 0, likes_count = 0, comments_count = 0, " +
+                "bookmarks_count = 0 WHERE post_id IN (:ids)", Map.of("ids", new ArrayList<>(totals.keySet())));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PendingCounts {
+        private long views;
+        private int likes;
+        private int comments;
+        private int bookmarks;
+    }
+}
@@ -0,0 +1,85 @@
+package com.server.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.server.server.config.PostCacheProperties;
+import com.server.server.dto.post.PostDto;
+import com.server.server.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of post detail DTOs.
+ *
+ * Entries are keyed by post id; slugs resolve to ids through a second index so a
+ * single eviction by id covers both lookups. Loads go through Caffeine's atomic
+ * compute, so concurrent misses on one key share a single database load.
+ */
+@Component
+public class PostDetailCache {
+
+    private final Cache<Long, PostDto> byId;
+    private final Cache<String, Long> idBySlug;
+
+    public PostDetailCache(PostCacheProperties properties, MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.idBySlug = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "post.detail.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idBySlug, "post.detail.by-slug");
+    }
+
+    public PostDto getById(Long id, Function<Long, PostDto> loader) {
+        return byId.get(id, loader);
+    }
+
+    public PostDto getBySlug(String slug, Function<String, PostDto> slugLoader, Function<Long, PostDto> idLoader) {
+        Long id = idBySlug.get(slug, key -> {
+            PostDto loaded = slugLoader.apply(key);
+            byId.put(loaded.getId(), loaded);
+            return loaded.getId();
+        });
+        return byId.get(id, idLoader);
+    }
+
+    /**
+     * Returns the cached entry without loading on a miss; used to answer
+     * conditional GETs without touching the database.
+     */
+    public PostDto peekById(Long id) {
+        return byId.getIfPresent(id);
+    }
+
+    public PostDto peekBySlug(String slug) {
+        Long id = idBySlug.getIfPresent(slug);
+        return id != null ? byId.getIfPresent(id) : null;
+    }
+
+    /**
+     * Evicts the post once the surrounding transaction commits, so a concurrent
+     * reader cannot re-populate the entry with pre-commit data.
+     */
+    public void evict(Long postId) {
+        TransactionUtils.afterCommit(() -> byId.invalidate(postId));
+    }
+
+    public void evict(Long postId, String slug) {
+        TransactionUtils.afterCommit(() -> {
+            byId.invalidate(postId);
+            if (slug != null) {
+                idBySlug.invalidate(slug);
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.server.server.service;
+
+import com.server.server.config.RenderProperties;
+import com.server.server.domain.Post;
+import com.server.server.domain.PostBody;
+import com.server.server.repository.PostBodyRepository;
+import com.server.server.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.safety.Safelist;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-time render stage for post bodies: converts Markdown to sanitised HTML
+ * once, when the body changes, and derives word count, reading time and an
+ * automatic summary from the rendered text.
+ */
+@Slf4j
+@Service
+public class PostRenderService {
+
+    private static final List<org.commonmark.Extension> EXTENSIONS = List.of(TablesExtension.create());
+
+    // Relaxed allows the usual article markup; code classes carry the fenced block language
+    private static final Safelist SAFELIST = Safelist.relaxed()
+            .addAttributes("code", "class")
+            .addEnforcedAttribute("a", "rel", "nofollow noopener");
+
+    private final PostRepository postRepository;
+    private final PostBodyRepository postBodyRepository;
+    private final PostDetailCache postDetailCache;
+    private final RenderProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Parser parser = Parser.builder().extensions(EXTENSIONS).build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .extensions(EXTENSIONS)
+            .sanitizeUrls(true)
+            .build();
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+    private final AtomicLong backfillProcessed = new AtomicLong();
+    private final AtomicLong backfillRendered = new AtomicLong();
+    private final AtomicLong backfillFailed = new AtomicLong();
+    private volatile LocalDateTime backfillStartedAt;
+    private volatile LocalDateTime backfillFinishedAt;
+
+    public PostRenderService(PostRepository postRepository,
+            PostBodyRepository postBodyRepository,
+            PostDetailCache postDetailCache,
+            RenderProperties properties,
+            PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.postBodyRepository = postBodyRepository;
+        this.postDetailCache = postDetailCache;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Renders the body into {@code contentHtml} and refreshes the derived post
+     * columns. Returns false without doing any work when the body is unchanged
+     * since the last render.
+     */
+    public boolean render(Post post, PostBody body) {
+        String markdown = body.getContent() != null ? body.getContent() : "";
+        String hash = sha256(markdown);
+        if (hash.equals(body.getContentHash()) && body.getContentHtml() != null) {
+            return false;
+        }
+
+        String html = Jsoup.clean(renderer.render(parser.parse(markdown)), "", SAFELIST,
+                new Document.OutputSettings().prettyPrint(false));
+        String text = Jsoup.parse(html).text();
+        int words = text.isBlank() ? 0 : text.trim().split("\\s+").length;
+
+        body.setContentHtml(html);
+        body.setContentHash(hash);
+        post.setWordCount(words);
+        post.setReadingTimeMinutes(words == 0 ? 0
+                : (words + properties.getWordsPerMinute() - 1) / properties.getWordsPerMinute());
+
+        if (post.getSummary() == null || Boolean.TRUE.equals(post.getSummaryGenerated())) {
+            post.setSummary(text.isEmpty() ? null : excerpt(text));
+            post.setSummaryGenerated(true);
+        }
+        return true;
+    }
+
+    /**
+     * Starts a background backfill that renders existing bodies in parallel chunks,
+     * one transaction per chunk. Without {@code force} only never-rendered bodies
+     * are visited; with it every body is re-rendered, e.g. after a change to the
+     * sanitiser policy.
+     */
+    public void startBackfill(boolean force) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Render backfill is already running");
+        }
+        backfillProcessed.set(0);
+        backfillRendered.set(0);
+        backfillFailed.set(0);
+        backfillStartedAt = LocalDateTime.now();
+        backfillFinishedAt = null;
+
+        Thread coordinator = new Thread(() -> runBackfill(force), "post-render-backfill");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    public Map<String, Object> getBackfillStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", backfillRunning.get());
+        status.put("processed", backfillProcessed.get());
+        status.put("rendered", backfillRendered.get());
+        status.put("failed", backfillFailed.get());
+        status.put("startedAt", backfillStartedAt);
+        status.put("finishedAt", backfillFinishedAt);
+        return status;
+    }
+
+    private void runBackfill(boolean force) {
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getBackfillThreads());
+        try {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            Long afterId = 0L;
+            List<Long> ids;
+            while (!(ids = postBodyRepository.findIdsForRender(afterId, force,
+                    PageRequest.of(0, properties.getBackfillChunkSize()))).isEmpty()) {
+                List<Long> chunk = ids;
+                chunks.add(CompletableFuture.runAsync(() -> renderChunk(chunk, force), workers));
+                afterId = ids.get(ids.size() - 1);
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+            log.info("Render backfill finished: {} processed, {} rendered, {} failed",
+                    backfillProcessed.get(), backfillRendered.get(), backfillFailed.get());
+        } catch (Exception e) {
+            log.error("Render backfill aborted", e);
+        } finally {
+            workers.shutdown();
+            backfillFinishedAt = LocalDateTime.now();
+            backfillRunning.set(false);
+        }
+    }
+
+    private void renderChunk(List<Long> ids, boolean force) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Post> posts = postRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Post::getId, Function.identity()));
+                for (PostBody body : postBodyRepository.findAllById(ids)) {
+                    Post post = posts.get(body.getPostId());
+                    if (post == null) {
+                        continue;
+                    }
+                    if (force) {
+                        body.setContentHash(null);
+                    }
+                    if (render(post, body)) {
+                        backfillRendered.incrementAndGet();
+                        postDetailCache.evict(post.getId());
+                    }
+                }
+            });
+            backfillProcessed.addAndGet(ids.size());
+        } catch (Exception e) {
+            backfillFailed.addAndGet(ids.size());
+            log.error("Render backfill failed for posts {}..{}", ids.get(0), ids.get(ids.size() - 1), e);
+        }
+    }
+
+    private String excerpt(String text) {
+        int limit = properties.getSummaryLength();
+        if (text.length() <= limit) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', limit);
+        return text.substring(0, cut > 0 ? cut : limit) + "…";
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
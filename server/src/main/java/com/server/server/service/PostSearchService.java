@@ -0,0 +1,648 @@
+package com.server.server.service;
+
+import com.server.server.config.SearchProperties;
+import com.server.server.dto.post.SearchFacetDto;
+import com.server.server.repository.PostRepository;
+import com.server.server.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiBits;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.jsoup.Jsoup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Lucene index behind {@code /api/posts/search}: BM25 ranking over
+ * title, tags, summary, author and body, highlighted snippets, and category/tag
+ * facets.
+ *
+ * Only published posts are indexed. Post writes mark the post after commit and a
+ * single indexer thread reloads it and refreshes the near-real-time searcher, so
+ * a change is searchable within moments. Full rebuilds run on the same thread,
+ * which keeps every index write ordered. Until the index has been fully built
+ * once (or when {@code app.search.mode=database}), searches use the MySQL
+ * FULLTEXT query instead. The index is local to each instance: a periodic
+ * reconcile reindexes posts updated since the last one (other instances' writes,
+ * lost after-commit hooks) and sweeps documents whose post is gone or no longer
+ * published.
+ */
+@Slf4j
+@Service
+public class PostSearchService {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String SUMMARY = "summary";
+    private static final String BODY = "body";
+    private static final String AUTHOR = "author";
+    private static final String TAGS = "tags";
+    private static final String GENERATION = "generation";
+    private static final String CATEGORY_FACET = "category";
+    private static final String TAG_FACET = "tag";
+
+    private static final String COMPLETE_KEY = "complete";
+    private static final String INDEXED_THROUGH_KEY = "indexedThrough";
+    // Writes whose after-commit hook fired shortly before a commit may not be indexed yet
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(5);
+
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(
+            TITLE, 3f, TAGS, 2f, SUMMARY, 1.5f, AUTHOR, 1f, BODY, 1f);
+
+    // Stored for highlighting, with offsets in the postings so snippets need no re-analysis
+    private static final FieldType BODY_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        BODY_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        BODY_TYPE.freeze();
+    }
+
+    private final PostRepository postRepository;
+    private final SearchProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Analyzer analyzer = new FoldingAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile FacetState facetState;
+    // Set once every published post is in the index; searches fall back to MySQL until then
+    private volatile boolean ready;
+    // Stamped on every document; a rebuild sweeps documents from older generations
+    private volatile long generation;
+    private volatile LocalDateTime indexedThrough;
+    // Writes from any instance up to this point are in the index; reconcile continues from here
+    private volatile LocalDateTime reconciledThrough;
+
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean(false);
+    private final AtomicLong rebuildIndexed = new AtomicLong();
+    private volatile boolean rebuildFailed;
+    private volatile LocalDateTime rebuildStartedAt;
+    private volatile LocalDateTime rebuildFinishedAt;
+
+    public PostSearchService(PostRepository postRepository,
+            SearchProperties properties,
+            PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        facetsConfig.setMultiValued(TAG_FACET, true);
+    }
+
+    @PostConstruct
+    void open() {
+        if (properties.getMode() != SearchProperties.Mode.LUCENE) {
+            return;
+        }
+        try {
+            directory = FSDirectory.open(Path.of(properties.getIndexDir()));
+            boolean existing = DirectoryReader.indexExists(directory);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+            generation = System.currentTimeMillis();
+
+            Map<String, String> commitData = new HashMap<>();
+            if (existing) {
+                writer.getLiveCommitData().forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+            }
+            if ("true".equals(commitData.get(COMPLETE_KEY)) && commitData.containsKey(INDEXED_THROUGH_KEY)) {
+                ready = true;
+                // Posts written or deleted while this instance was down (or after its last commit)
+                reconciledThrough = LocalDateTime.parse(commitData.get(INDEXED_THROUGH_KEY));
+                indexer.execute(this::reconcile);
+            } else {
+                startRebuild();
+            }
+        } catch (IOException e) {
+            log.error("Search index at {} unavailable, using database search", properties.getIndexDir(), e);
+            closeIndex();
+        }
+    }
+
+    public boolean isAvailable() {
+        return writer != null && ready;
+    }
+
+    /**
+     * Reindexes (or removes) the post once the surrounding transaction commits.
+     */
+    public void onPostChanged(Long postId) {
+        if (writer == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            pending.add(postId);
+            if (!indexer.isShutdown()) {
+                indexer.execute(this::drain);
+            }
+        });
+    }
+
+    /**
+     * Runs a query against the index, or against MySQL FULLTEXT while the index is
+     * not available. Only the requested page is highlighted; facet counts cover
+     * every hit.
+     */
+    public Hits search(String text, String categorySlug, String tagSlug, Pageable pageable) {
+        if (isAvailable()) {
+            try {
+                return searchIndex(text, categorySlug, tagSlug, pageable);
+            } catch (IOException e) {
+                log.error("Search index query failed, using database search", e);
+            }
+        }
+        Page<Long> page = postRepository.searchPostIds(text, categorySlug, tagSlug, pageable);
+        return new Hits(page.getContent(), page.getTotalElements(), Map.of(), Map.of(), Map.of());
+    }
+
+    private Hits searchIndex(String text, String categorySlug, String tagSlug, Pageable pageable)
+            throws IOException {
+        int from = (int) Math.min(pageable.getOffset(), properties.getMaxResultWindow());
+        int window = Math.min(from + pageable.getPageSize(), properties.getMaxResultWindow());
+
+        Query base = new SimpleQueryParser(analyzer, FIELD_WEIGHTS).parse(text);
+        DrillDownQuery query = new DrillDownQuery(facetsConfig, base);
+        if (categorySlug != null) {
+            query.add(CATEGORY_FACET, categorySlug);
+        }
+        if (tagSlug != null) {
+            query.add(TAG_FACET, tagSlug);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            FacetsCollectorManager.FacetsResult result = FacetsCollectorManager.search(
+                    searcher, query, Math.max(window, 1), new FacetsCollectorManager());
+            FacetsCollector facetsCollector = result.facetsCollector();
+            long total = facetsCollector.getMatchingDocs().stream().mapToLong(docs -> docs.totalHits).sum();
+
+            ScoreDoc[] hits = result.topDocs().scoreDocs;
+            ScoreDoc[] page = Arrays.copyOfRange(hits, Math.min(from, hits.length), hits.length);
+            StoredFields storedFields = searcher.storedFields();
+            List<Long> postIds = new ArrayList<>(page.length);
+            for (ScoreDoc hit : page) {
+                postIds.add(Long.valueOf(storedFields.document(hit.doc, Set.of(ID)).get(ID)));
+            }
+
+            Map<Long, String> titleHighlights = new HashMap<>();
+            Map<Long, String> snippets = new HashMap<>();
+            if (page.length > 0) {
+                Map<String, String[]> highlights = highlighter(searcher).highlightFields(new String[] { TITLE, BODY },
+                        base, new TopDocs(result.topDocs().totalHits, page), new int[] { 1, 1 });
+                for (int i = 0; i < page.length; i++) {
+                    putIfPresent(titleHighlights, postIds.get(i), highlights.get(TITLE)[i]);
+                    putIfPresent(snippets, postIds.get(i), highlights.get(BODY)[i]);
+                }
+            }
+
+            return new Hits(postIds, total, titleHighlights, snippets, facets(searcher, facetsCollector));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private UnifiedHighlighter highlighter(IndexSearcher searcher) {
+        return UnifiedHighlighter.builder(searcher, analyzer)
+                .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "… ", true))
+                .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                        BreakIterator.getSentenceInstance(Locale.ROOT), properties.getSnippetLength(), 0.5f))
+                .withMaxNoHighlightPassages(0)
+                .build();
+    }
+
+    private Map<String, List<SearchFacetDto>> facets(IndexSearcher searcher, FacetsCollector facetsCollector)
+            throws IOException {
+        SortedSetDocValuesReaderState state = facetState(searcher.getIndexReader());
+        Map<String, List<SearchFacetDto>> facets = new LinkedHashMap<>();
+        if (state == null) {
+            return facets;
+        }
+        Facets counts = new SortedSetDocValuesFacetCounts(state, facetsCollector);
+        for (String dimension : List.of(CATEGORY_FACET, TAG_FACET)) {
+            List<SearchFacetDto> values = new ArrayList<>();
+            FacetResult result = state.getOrdRange(dimension) != null
+                    ? counts.getTopChildren(properties.getMaxFacetValues(), dimension)
+                    : null;
+            if (result != null) {
+                for (LabelAndValue labelAndValue : result.labelValues) {
+                    values.add(new SearchFacetDto(labelAndValue.label, labelAndValue.value.longValue()));
+                }
+            }
+            facets.put(dimension, values);
+        }
+        return facets;
+    }
+
+    // Ordinal state is per reader and costly to build, so it is reused until the searcher refreshes
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+        FacetState current = facetState;
+        if (current == null || current.getReader() != reader) {
+            SortedSetDocValuesReaderState state;
+            try {
+                state = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+            } catch (IllegalArgumentException e) {
+                // No document carries a facet value yet
+                state = null;
+            }
+            current = new FacetState(reader, state);
+            facetState = current;
+        }
+        return current.getState();
+    }
+
+    /**
+     * Rebuilds the index from the database in the background. The current index
+     * keeps serving while the rebuild runs; posts that are no longer published are
+     * swept when it finishes.
+     */
+    public void startRebuild() {
+        if (writer == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Search index is disabled");
+        }
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Search index rebuild is already running");
+        }
+        rebuildIndexed.set(0);
+        rebuildFailed = false;
+        rebuildStartedAt = LocalDateTime.now();
+        rebuildFinishedAt = null;
+        indexer.execute(this::runRebuild);
+    }
+
+    public Map<String, Object> getRebuildStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("mode", properties.getMode());
+        status.put("ready", isAvailable());
+        status.put("documents", writer != null ? writer.getDocStats().numDocs : 0);
+        status.put("running", rebuildRunning.get());
+        status.put("indexed", rebuildIndexed.get());
+        status.put("failed", rebuildFailed);
+        status.put("startedAt", rebuildStartedAt);
+        status.put("finishedAt", rebuildFinishedAt);
+        return status;
+    }
+
+    private void runRebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long rebuildGeneration = System.currentTimeMillis();
+        generation = rebuildGeneration;
+        try {
+            Long afterId = 0L;
+            List<Long> ids;
+            while (!(ids = postRepository.findPublishedIdsAfter(afterId,
+                    PageRequest.of(0, properties.getRebuildBatchSize()))).isEmpty()) {
+                index(ids);
+                rebuildIndexed.addAndGet(ids.size());
+                afterId = ids.get(ids.size() - 1);
+            }
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            ready = true;
+            indexedThrough = startedAt;
+            reconciledThrough = startedAt;
+            commit();
+            searcherManager.maybeRefresh();
+            log.info("Search index rebuilt with {} posts", rebuildIndexed.get());
+        } catch (Exception e) {
+            rebuildFailed = true;
+            log.error("Search index rebuild failed", e);
+        } finally {
+            rebuildFinishedAt = LocalDateTime.now();
+            rebuildRunning.set(false);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.search.reconcile-interval:PT5M}",
+            fixedDelayString = "${app.search.reconcile-interval:PT5M}")
+    public void scheduleReconcile() {
+        if (writer == null || indexer.isShutdown()) {
+            return;
+        }
+        indexer.execute(this::reconcile);
+    }
+
+    // Runs on the indexer thread, so it never overlaps a rebuild or a drain
+    private void reconcile() {
+        if (!ready || reconciledThrough == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = reconciledThrough.minus(CATCH_UP_MARGIN);
+        try {
+            List<Long> updated = postRepository.findIdsUpdatedSince(since);
+            pending.addAll(updated);
+            drain();
+            int swept = sweep();
+            reconciledThrough = startedAt;
+            if (swept > 0) {
+                log.info("Search reconcile since {}: {} posts reindexed, {} documents swept", since,
+                        updated.size(), swept);
+            }
+        } catch (Exception e) {
+            log.error("Search reconcile since {} failed", since, e);
+        }
+    }
+
+    // Deletes the documents of posts that were deleted or unpublished without this instance seeing it
+    private int sweep() throws IOException {
+        List<Long> indexed = new ArrayList<>();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            Bits liveDocs = MultiBits.getLiveDocs(reader);
+            StoredFields storedFields = searcher.storedFields();
+            for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                if (liveDocs == null || liveDocs.get(doc)) {
+                    indexed.add(Long.valueOf(storedFields.document(doc, Set.of(ID)).get(ID)));
+                }
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+
+        int swept = 0;
+        for (int i = 0; i < indexed.size(); i += properties.getRebuildBatchSize()) {
+            List<Long> batch = indexed.subList(i, Math.min(i + properties.getRebuildBatchSize(), indexed.size()));
+            Set<Long> published = new HashSet<>(postRepository.findPublishedIdsByIdIn(batch));
+            for (Long id : batch) {
+                if (!published.contains(id)) {
+                    writer.deleteDocuments(new Term(ID, id.toString()));
+                    swept++;
+                }
+            }
+        }
+        if (swept > 0) {
+            searcherManager.maybeRefresh();
+        }
+        return swept;
+    }
+
+    private void drain() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(pending);
+        if (ids.isEmpty()) {
+            return;
+        }
+        pending.removeAll(ids);
+        try {
+            for (int i = 0; i < ids.size(); i += properties.getRebuildBatchSize()) {
+                index(ids.subList(i, Math.min(i + properties.getRebuildBatchSize(), ids.size())));
+            }
+            searcherManager.maybeRefresh();
+            if (pending.isEmpty()) {
+                indexedThrough = startedAt;
+            }
+        } catch (Exception e) {
+            log.error("Search indexing failed for {} posts", ids.size(), e);
+        }
+    }
+
+    private void index(List<Long> ids) throws IOException {
+        Map<Long, Document> documents = transactionTemplate.execute(status -> loadDocuments(ids));
+        for (Long id : ids) {
+            Term term = new Term(ID, id.toString());
+            Document document = documents.get(id);
+            if (document != null) {
+                writer.updateDocument(term, document);
+            } else {
+                writer.deleteDocuments(term);
+            }
+        }
+    }
+
+    private Map<Long, Document> loadDocuments(List<Long> ids) {
+        Map<Long, List<Object[]>> tags = new HashMap<>();
+        for (Object[] row : postRepository.findTagRowsByPostIdIn(ids)) {
+            tags.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+        Map<Long, Document> documents = new HashMap<>();
+        for (Object[] row : postRepository.findSearchRowsByIdIn(ids)) {
+            Long id = (Long) row[0];
+            try {
+                documents.put(id, toDocument(row, tags.getOrDefault(id, List.of())));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot build search document for post " + id, e);
+            }
+        }
+        return documents;
+    }
+
+    // row: [id, title, summary, username, displayName, categorySlug, publishedAt, contentHtml]
+    // tag rows: [postId, tagId, name, slug, description]
+    private Document toDocument(Object[] row, List<Object[]> tagRows) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, row[0].toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, (String) row[1], Field.Store.YES));
+        if (row[2] != null) {
+            document.add(new TextField(SUMMARY, (String) row[2], Field.Store.NO));
+        }
+        document.add(new TextField(AUTHOR, row[3] + (row[4] != null ? " " + row[4] : ""), Field.Store.NO));
+        if (row[7] != null) {
+            document.add(new Field(BODY, Jsoup.parse((String) row[7]).text(), BODY_TYPE));
+        }
+        if (row[5] != null) {
+            document.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, (String) row[5]));
+        }
+        for (Object[] tag : tagRows) {
+            document.add(new TextField(TAGS, (String) tag[2], Field.Store.NO));
+            document.add(new SortedSetDocValuesFacetField(TAG_FACET, (String) tag[3]));
+        }
+        document.add(new LongPoint(GENERATION, generation));
+        return facetsConfig.build(document);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.commit-interval:PT30S}")
+    public void scheduleCommit() {
+        if (writer == null || indexer.isShutdown()) {
+            return;
+        }
+        indexer.execute(() -> {
+            try {
+                if (!rebuildRunning.get() && writer.hasUncommittedChanges()) {
+                    commit();
+                }
+            } catch (IOException e) {
+                log.error("Search index commit failed", e);
+            }
+        });
+    }
+
+    // Commit data tells the next start whether the index is complete and where to catch up from
+    private void commit() throws IOException {
+        LocalDateTime through = indexedThrough != null ? indexedThrough : LocalDateTime.now();
+        if (reconciledThrough != null && reconciledThrough.isBefore(through)) {
+            through = reconciledThrough;
+        }
+        writer.setLiveCommitData(Map.of(
+                COMPLETE_KEY, String.valueOf(ready),
+                INDEXED_THROUGH_KEY, through.minus(CATCH_UP_MARGIN).toString()).entrySet());
+        writer.commit();
+    }
+
+    @PreDestroy
+    void close() {
+        indexer.shutdown();
+        try {
+            if (!indexer.awaitTermination(10, TimeUnit.SECONDS)) {
+                indexer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            indexer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null && writer.isOpen() && !rebuildRunning.get()) {
+            try {
+                commit();
+            } catch (IOException e) {
+                log.error("Search index commit on shutdown failed", e);
+            }
+        }
+        closeIndex();
+    }
+
+    private void closeIndex() {
+        try {
+            if (searcherManager != null) {
+                searcherManager.close();
+            }
+            if (writer != null) {
+                writer.rollback();
+            }
+            if (directory != null) {
+                directory.close();
+            }
+        } catch (IOException e) {
+            log.warn("Closing search index failed", e);
+        } finally {
+            searcherManager = null;
+            writer = null;
+            directory = null;
+        }
+    }
+
+    private static void putIfPresent(Map<Long, String> map, Long key, String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Page of matching post ids in rank order, with per-post highlights (matched
+     * terms in {@code <mark>}, text escaped) and facet counts.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Hits {
+        private List<Long> postIds;
+        private long totalHits;
+        private Map<Long, String> titleHighlights;
+        private Map<Long, String> snippets;
+        private Map<String, List<SearchFacetDto>> facets;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class FacetState {
+        private IndexReader reader;
+        private SortedSetDocValuesReaderState state;
+    }
+
+    /**
+     * Standard tokenisation, lower-cased, with accent-folded variants indexed next
+     * to the originals so "tieng viet" also matches "tiếng việt".
+     */
+    private static class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer), true);
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
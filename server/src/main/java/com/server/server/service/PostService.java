@@ -2,31 +2,45 @@ package com.server.server.service;
 
 import com.server.server.domain.Category;
 import com.server.server.domain.Post;
+import com.server.server.domain.PostBody;
 import com.server.server.domain.PostStatus;
-import com.server.server.domain.PostView;
 import com.server.server.domain.Tag;
 import com.server.server.domain.User;
+import com.server.server.dto.CursorPage;
+import com.server.server.dto.ResourceVersion;
+import com.server.server.dto.TagDto;
 import com.server.server.dto.post.CreatePostRequest;
 import com.server.server.dto.post.PostDto;
 import com.server.server.dto.post.PostListDto;
+import com.server.server.dto.post.PostSearchPage;
 import com.server.server.dto.post.UpdatePostRequest;
 import com.server.server.repository.CategoryRepository;
+import com.server.server.repository.PostBodyRepository;
 import com.server.server.repository.PostRepository;
-import com.server.server.repository.PostViewRepository;
 import com.server.server.repository.TagRepository;
 import com.server.server.repository.UserRepository;
+import com.server.server.util.CursorUtils;
+import com.server.server.util.HttpCacheUtils;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
 import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -38,7 +52,17 @@ public class PostService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
-    private final PostViewRepository postViewRepository;
+    private final PostBodyRepository postBodyRepository;
+    private final PostDetailCache postDetailCache;
+    private final PostRenderService postRenderService;
+    private final TrendingScoreService trendingScoreService;
+    private final TimelineService timelineService;
+    private final SimilarPostsService similarPostsService;
+    private final PostSearchService postSearchService;
+    private final PostViewBuffer postViewBuffer;
+    private final ViewSketchService viewSketchService;
+    private final PostCounterService postCounterService;
+    private final CommentTreeCache commentTreeCache;
 
     private static final Pattern NONLATIN = Pattern.compile("[^\\w-]");
     private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
@@ -47,12 +71,32 @@ public class PostService {
             UserRepository userRepository,
             CategoryRepository categoryRepository,
             TagRepository tagRepository,
-            PostViewRepository postViewRepository) {
+            PostBodyRepository postBodyRepository,
+            PostDetailCache postDetailCache,
+            PostRenderService postRenderService,
+            TrendingScoreService trendingScoreService,
+            TimelineService timelineService,
+            SimilarPostsService similarPostsService,
+            PostSearchService postSearchService,
+            PostViewBuffer postViewBuffer,
+            ViewSketchService viewSketchService,
+            PostCounterService postCounterService,
+            CommentTreeCache commentTreeCache) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
         this.tagRepository = tagRepository;
-        this.postViewRepository = postViewRepository;
+        this.postBodyRepository = postBodyRepository;
+        this.postDetailCache = postDetailCache;
+        this.postRenderService = postRenderService;
+        this.trendingScoreService = trendingScoreService;
+        this.timelineService = timelineService;
+        this.similarPostsService = similarPostsService;
+        this.postSearchService = postSearchService;
+        this.postViewBuffer = postViewBuffer;
+        this.viewSketchService = viewSketchService;
+        this.postCounterService = postCounterService;
+        this.commentTreeCache = commentTreeCache;
     }
 
     @Transactional
@@ -63,8 +107,8 @@ public class PostService {
         Post post = new Post();
         post.setAuthor(author);
         post.setTitle(request.getTitle());
-        post.setSummary(request.getSummary());
-        post.setContent(request.getContent());
+        // A blank summary is left for the render stage to fill from the body
+        post.setSummary(StringUtils.hasText(request.getSummary()) ? request.getSummary() : null);
         post.setCoverImageUrl(request.getCoverImageUrl());
         post.setStatus(request.getStatus() != null ? request.getStatus() : PostStatus.DRAFT);
 
@@ -102,7 +146,21 @@ public class PostService {
         }
 
         post = postRepository.save(post);
-        return mapToDto(post);
+
+        PostBody body = new PostBody();
+        body.setPostId(post.getId());
+        body.setContent(request.getContent());
+        postRenderService.render(post, body);
+        body = postBodyRepository.save(body);
+
+        if (post.getStatus() == PostStatus.PUBLISHED) {
+            trendingScoreService.markDirty(post.getId());
+            timelineService.onPublished(post);
+            similarPostsService.onPostChanged(post.getId());
+            postSearchService.onPostChanged(post.getId());
+        }
+
+        return mapToDto(post, body);
     }
 
     @Transactional
@@ -115,22 +173,32 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only edit your own posts");
         }
 
+        postDetailCache.evict(post.getId(), post.getSlug());
+
         if (request.getTitle() != null) {
             post.setTitle(request.getTitle());
             // Regenerate slug if title changed
             String baseSlug = generateSlug(request.getTitle());
             if (!post.getSlug().startsWith(baseSlug)) {
                 String uniqueSlug = ensureUniqueSlug(baseSlug);
+                commentTreeCache.evict(post.getId(), post.getSlug());
                 post.setSlug(uniqueSlug);
             }
         }
 
-        if (request.getContent() != null) {
-            post.setContent(request.getContent());
-        }
-
         if (request.getSummary() != null) {
             post.setSummary(request.getSummary());
+            post.setSummaryGenerated(false);
+        }
+
+        PostBody body = postBodyRepository.findById(postId)
+                .orElseGet(() -> new PostBody(postId));
+        if (request.getContent() != null) {
+            body.setContent(request.getContent());
+        }
+        // Unchanged bodies hash the same and skip rendering
+        if (postRenderService.render(post, body)) {
+            body = postBodyRepository.save(body);
         }
 
         if (request.getCoverImageUrl() != null) {
@@ -167,8 +235,8 @@ public class PostService {
             post.setTags(tags);
         }
 
+        PostStatus oldStatus = post.getStatus();
         if (request.getStatus() != null) {
-            PostStatus oldStatus = post.getStatus();
             post.setStatus(request.getStatus());
 
             // Set published_at when changing to PUBLISHED
@@ -178,7 +246,13 @@ public class PostService {
         }
 
         post = postRepository.save(post);
-        return mapToDto(post);
+        trendingScoreService.markDirty(post.getId());
+        updateTimelines(post, oldStatus);
+        if (request.getTags() != null || request.getCategoryId() != null || post.getStatus() != oldStatus) {
+            similarPostsService.onPostChanged(post.getId());
+        }
+        postSearchService.onPostChanged(post.getId());
+        return mapToDto(post, body);
     }
 
     @Transactional
@@ -190,139 +264,214 @@ public class PostService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only delete your own posts");
         }
 
-
+        postDetailCache.evict(post.getId(), post.getSlug());
+        commentTreeCache.evict(post.getId(), post.getSlug());
+        similarPostsService.onPostChanged(post.getId());
+        postSearchService.onPostChanged(post.getId());
         postRepository.delete(post);
     }
 
     public PostDto getPostById(Long id) {
+        return postDetailCache.getById(id, this::loadPostById);
+    }
+
+    public PostDto getPostBySlug(String slug) {
+        return postDetailCache.getBySlug(slug, this::loadPostBySlug, this::loadPostById);
+    }
+
+    /**
+     * Validators for a conditional GET of the post detail. Served from the detail
+     * cache when the post is cached, so the ETag describes exactly the body that
+     * would be returned; otherwise a single-row column read without the body.
+     */
+    public ResourceVersion getPostVersion(Long id) {
+        PostDto cached = postDetailCache.peekById(id);
+        if (cached != null) {
+            return toVersion(cached);
+        }
+        return postRepository.findVersionRowById(id).stream().findFirst().map(this::toVersion).orElse(null);
+    }
+
+    public ResourceVersion getPostVersionBySlug(String slug) {
+        PostDto cached = postDetailCache.peekBySlug(slug);
+        if (cached != null) {
+            return toVersion(cached);
+        }
+        return postRepository.findVersionRowBySlug(slug).stream().findFirst().map(this::toVersion).orElse(null);
+    }
+
+    private ResourceVersion toVersion(PostDto dto) {
+        return new ResourceVersion(HttpCacheUtils.etag("p" + dto.getId(), dto.getUpdatedAt(), dto.getViews(),
+                dto.getLikesCount(), dto.getCommentsCount(), dto.getBookmarksCount()), dto.getUpdatedAt());
+    }
+
+    // Counter columns are part of the ETag: like/comment/bookmark counters are
+    // bumped with bulk updates that do not touch updatedAt
+    private ResourceVersion toVersion(Object[] row) {
+        LocalDateTime updatedAt = (LocalDateTime) row[1];
+        Long id = (Long) row[0];
+        long views = ((Number) row[2]).longValue();
+        int likes = ((Number) row[3]).intValue();
+        int comments = ((Number) row[4]).intValue();
+        int bookmarks = ((Number) row[5]).intValue();
+        PostCounterService.PendingCounts pending = postCounterService.getPending(List.of(id)).get(id);
+        if (pending != null) {
+            views += pending.getViews();
+            likes += pending.getLikes();
+            comments += pending.getComments();
+            bookmarks += pending.getBookmarks();
+        }
+        return new ResourceVersion(HttpCacheUtils.etag("p" + id, updatedAt, views, likes, comments, bookmarks),
+                updatedAt);
+    }
+
+    private PostDto loadPostById(Long id) {
         Post post = postRepository.findByIdWithGraph(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        return mapToDto(post);
+        return mapToDetailDto(post);
     }
 
-    public PostDto getPostBySlug(String slug) {
+    private PostDto loadPostBySlug(String slug) {
         Post post = postRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        return mapToDto(post);
+        return mapToDetailDto(post);
+    }
+
+    private PostDto mapToDetailDto(Post post) {
+        PostDto dto = mapToDto(post, postBodyRepository.findById(post.getId()).orElse(null));
+        dto.setUniqueVisitors(viewSketchService.getUniqueVisitors(post.getId()));
+        return dto;
     }
 
     public Page<PostListDto> getPublicPosts(Pageable pageable) {
-        return postRepository.findByStatus(PostStatus.PUBLISHED, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByStatus(PostStatus.PUBLISHED, pageable));
     }
 
     public Page<PostListDto> getMyPosts(Long authorId, PostStatus status, Pageable pageable) {
         if (status != null) {
-            return postRepository.findByAuthorIdAndStatus(authorId, status, pageable)
-                    .map(this::mapToListDto);
+            return hydrateListPage(postRepository.findIdsByAuthorIdAndStatus(authorId, status, pageable));
         } else {
-            return postRepository.findByAuthorId(authorId, pageable)
-                    .map(this::mapToListDto);
+            return hydrateListPage(postRepository.findIdsByAuthorId(authorId, pageable));
         }
     }
 
-    @Transactional
-    public void incrementView(Long postId, Long userId, String ipAddress) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-
-        boolean alreadyViewed = false;
-
-        if (userId != null) {
-            alreadyViewed = postViewRepository.existsByPostIdAndUserId(postId, userId);
-        } else if (ipAddress != null) {
-            alreadyViewed = postViewRepository.existsByPostIdAndIpAddress(postId, ipAddress);
-        }
+    // Keyset (cursor) variants of the listing methods: no count query, and deep
+    // pages cost the same as the first one. Sizes are clamped to 1..100.
+    public CursorPage<PostListDto> scrollPublicPosts(String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Long> ids = postRepository.findIdsByStatusBefore(PostStatus.PUBLISHED,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+        return toCursorPage(ids, size, PostListDto::getPublishedAt);
+    }
 
-        if (!alreadyViewed) {
-            PostView postView = new PostView();
-            postView.setPost(post);
-            postView.setIpAddress(ipAddress);
+    public CursorPage<PostListDto> scrollPostsByCategory(Long categoryId, PostStatus status, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Long> ids = postRepository.findIdsByCategoryIdAndStatusBefore(categoryId, status,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+        return toCursorPage(ids, size, PostListDto::getPublishedAt);
+    }
 
-            if (userId != null) {
-                User user = userRepository.findById(userId).orElse(null);
-                postView.setUser(user);
-            }
+    public CursorPage<PostListDto> scrollPostsByTagSlug(String tagSlug, PostStatus status, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Long> ids = postRepository.findIdsByTagSlugAndStatusBefore(tagSlug, status,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+        return toCursorPage(ids, size, PostListDto::getPublishedAt);
+    }
 
-            postViewRepository.save(postView);
+    public CursorPage<PostListDto> scrollFeedPosts(Long userId, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Long> ids = timelineService.getFeedPostIdsBefore(userId,
+                position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+        return toCursorPage(ids, size, PostListDto::getPublishedAt);
+    }
 
-            // Increment view count in Post entity
-            post.setViews(post.getViews() + 1);
-            postRepository.save(post);
+    public CursorPage<PostListDto> scrollMyPosts(Long authorId, PostStatus status, String cursor, int size) {
+        size = CursorUtils.clampSize(size);
+        CursorUtils.Cursor position = CursorUtils.decode(cursor);
+        List<Long> ids;
+        if (status != null) {
+            ids = postRepository.findIdsByAuthorIdAndStatusBefore(authorId, status,
+                    position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
+        } else {
+            ids = postRepository.findIdsByAuthorIdBefore(authorId,
+                    position.getTimestamp(), position.getId(), PageRequest.of(0, size + 1));
         }
+        return toCursorPage(ids, size, PostListDto::getCreatedAt);
+    }
+
+    /**
+     * Accepts a view into the write-behind buffer; the unique-view check, the
+     * {@code post_views} row and the counter update happen on the next flush.
+     * Cached post details keep their count until TTL, as before.
+     */
+    public void incrementView(Long postId, Long userId, String ipAddress) {
+        postViewBuffer.record(postId, userId, ipAddress);
     }
 
     public Page<PostListDto> getPostsByAuthorUsername(String username, PostStatus status, Pageable pageable) {
         if (status != null) {
-            return postRepository.findByAuthorUsernameAndStatus(username, status, pageable)
-                    .map(this::mapToListDto);
+            return hydrateListPage(postRepository.findIdsByAuthorUsernameAndStatus(username, status, pageable));
         } else {
             // If no status specified, default to PUBLISHED for public author pages
-            return postRepository.findByAuthorUsernameAndStatus(username, PostStatus.PUBLISHED, pageable)
-                    .map(this::mapToListDto);
+            return hydrateListPage(
+                    postRepository.findIdsByAuthorUsernameAndStatus(username, PostStatus.PUBLISHED, pageable));
         }
     }
 
     public Page<PostListDto> getPostsByCategory(Long categoryId, PostStatus status, Pageable pageable) {
-        return postRepository.findByCategoryIdAndStatus(categoryId, status, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByCategoryIdAndStatus(categoryId, status, pageable));
     }
 
     public Page<PostListDto> getPostsByTagId(Long tagId, PostStatus status, Pageable pageable) {
-        return postRepository.findByTagIdAndStatus(tagId, status, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByTagIdAndStatus(tagId, status, pageable));
     }
 
     public Page<PostListDto> getPostsByTagSlug(String tagSlug, PostStatus status, Pageable pageable) {
-        return postRepository.findByTagSlugAndStatus(tagSlug, status, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByTagSlugAndStatus(tagSlug, status, pageable));
     }
 
-    public Page<PostListDto> searchPosts(String query, Pageable pageable) {
-        return postRepository.searchPosts(query, pageable)
-                .map(this::mapToListDto);
+    /**
+     * Full-text search, optionally narrowed to a category and/or tag slug. Hits are
+     * hydrated like any other list page; highlights are attached to their cards.
+     */
+    public PostSearchPage searchPosts(String query, String categorySlug, String tagSlug, Pageable pageable) {
+        PostSearchService.Hits hits = postSearchService.search(query, categorySlug, tagSlug, pageable);
+        List<PostListDto> content = getPostListDtos(hits.getPostIds());
+        for (PostListDto dto : content) {
+            dto.setTitleHighlight(hits.getTitleHighlights().get(dto.getId()));
+            dto.setSnippet(hits.getSnippets().get(dto.getId()));
+        }
+        Page<PostListDto> page = new PageImpl<>(content, pageable, hits.getTotalHits());
+        return new PostSearchPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages(), hits.getFacets());
     }
 
+    // Without a transaction: a trending query that times out must not mark one rollback-only
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<PostListDto> getTrendingPosts(LocalDateTime since, Pageable pageable) {
-        return postRepository.findTrendingPosts(since, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(trendingScoreService.getTrendingPostIds(since, pageable));
     }
 
     public Page<PostListDto> getFeedPosts(Long userId, Pageable pageable) {
-        return postRepository.findFeedPosts(userId, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(timelineService.getFeedPostIds(userId, pageable));
     }
 
     public Page<PostListDto> getSimilarPosts(Long postId, Pageable pageable) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
-        java.util.Set<Long> tagIds = post.getTags().stream()
-                .map(com.server.server.domain.Tag::getId)
-                .collect(java.util.stream.Collectors.toSet());
-
-        if (tagIds.isEmpty()) {
-            tagIds.add(-1L);
-        }
-
-        return postRepository.findSimilarPosts(
-                postId,
-                post.getCategory().getId(),
-                tagIds,
-                pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(similarPostsService.getSimilarPostIds(postId, pageable));
     }
 
     // Admin methods
     public Page<PostListDto> getPostsByStatus(PostStatus status, Pageable pageable) {
-        return postRepository.findByStatus(status, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByStatus(status, pageable));
     }
 
     public Page<PostListDto> getAllPostsForAdmin(Pageable pageable) {
         // Exclude DRAFT posts - they are private to authors
-        return postRepository.findByStatusNot(PostStatus.DRAFT, pageable)
-                .map(this::mapToListDto);
+        return hydrateListPage(postRepository.findIdsByStatusNot(PostStatus.DRAFT, pageable));
     }
 
     @Transactional
@@ -339,12 +488,29 @@ public class PostService {
         }
         
         postRepository.save(post);
+        postDetailCache.evict(post.getId());
+        trendingScoreService.markDirty(post.getId());
+        updateTimelines(post, oldStatus);
+        similarPostsService.onPostChanged(post.getId());
+        postSearchService.onPostChanged(post.getId());
+    }
+
+    private void updateTimelines(Post post, PostStatus oldStatus) {
+        if (oldStatus != PostStatus.PUBLISHED && post.getStatus() == PostStatus.PUBLISHED) {
+            timelineService.onPublished(post);
+        } else if (oldStatus == PostStatus.PUBLISHED && post.getStatus() != PostStatus.PUBLISHED) {
+            timelineService.onUnpublished(post.getId());
+        }
     }
 
     @Transactional
     public void deletePost(Long postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+        postDetailCache.evict(post.getId(), post.getSlug());
+        commentTreeCache.evict(post.getId(), post.getSlug());
+        similarPostsService.onPostChanged(post.getId());
+        postSearchService.onPostChanged(post.getId());
         postRepository.delete(post);
     }
 
@@ -379,7 +545,68 @@ public class PostService {
         return slug;
     }
 
-    private PostDto mapToDto(Post post) {
+    /**
+     * Loads list cards for the given post ids, in the given order. Uses a column
+     * projection plus one batched tag lookup, so post bodies are never read.
+     */
+    public List<PostListDto> getPostListDtos(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, PostListDto> dtosById = postRepository.findListDtosByIdIn(postIds).stream()
+                .collect(Collectors.toMap(PostListDto::getId, Function.identity()));
+
+        postCounterService.getPending(postIds).forEach((postId, pending) -> {
+            PostListDto dto = dtosById.get(postId);
+            if (dto != null) {
+                dto.setViews(dto.getViews() + pending.getViews());
+                dto.setLikesCount(dto.getLikesCount() + pending.getLikes());
+                dto.setCommentsCount(dto.getCommentsCount() + pending.getComments());
+                dto.setBookmarksCount(dto.getBookmarksCount() + pending.getBookmarks());
+            }
+        });
+
+        for (Object[] row : postRepository.findTagRowsByPostIdIn(postIds)) {
+            PostListDto dto = dtosById.get((Long) row[0]);
+            if (dto.getTags() == null) {
+                dto.setTags(new HashSet<>());
+            }
+            dto.getTags().add(new TagDto((Long) row[1], (String) row[2], (String) row[3], (String) row[4], null));
+        }
+
+        return postIds.stream()
+                .map(dtosById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Second phase of list pagination: the page of ids was sliced in SQL, so only
+     * those posts are loaded and returned in the page's order.
+     */
+    private Page<PostListDto> hydrateListPage(Page<Long> idPage) {
+        return new PageImpl<>(getPostListDtos(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    /**
+     * Builds a keyset page from ids fetched with one extra row: the extra row only
+     * signals that a next page exists and is dropped from the response.
+     */
+    private CursorPage<PostListDto> toCursorPage(List<Long> ids, int size,
+            Function<PostListDto, LocalDateTime> sortKey) {
+        boolean hasNext = ids.size() > size;
+        List<PostListDto> content = getPostListDtos(hasNext ? ids.subList(0, size) : ids);
+
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            PostListDto last = content.get(content.size() - 1);
+            nextCursor = CursorUtils.encode(sortKey.apply(last), last.getId());
+        }
+        return new CursorPage<>(content, nextCursor, hasNext, size);
+    }
+
+    private PostDto mapToDto(Post post, PostBody body) {
         PostDto dto = new PostDto();
         dto.setId(post.getId());
         dto.setAuthorId(post.getAuthor().getId());
@@ -408,54 +635,27 @@ public class PostService {
         dto.setTitle(post.getTitle());
         dto.setSlug(post.getSlug());
         dto.setSummary(post.getSummary());
-        dto.setContent(post.getContent());
+        dto.setContent(body != null ? body.getContent() : null);
+        dto.setContentHtml(body != null ? body.getContentHtml() : null);
+        dto.setWordCount(post.getWordCount());
+        dto.setReadingTimeMinutes(post.getReadingTimeMinutes());
         dto.setCoverImageUrl(post.getCoverImageUrl());
         dto.setStatus(post.getStatus());
         dto.setViews(post.getViews());
         dto.setLikesCount(post.getLikesCount());
         dto.setCommentsCount(post.getCommentsCount());
         dto.setBookmarksCount(post.getBookmarksCount());
-        dto.setPublishedAt(post.getPublishedAt());
-        dto.setCreatedAt(post.getCreatedAt());
-        dto.setUpdatedAt(post.getUpdatedAt());
-        return dto;
-    }
-
-    private PostListDto mapToListDto(Post post) {
-        PostListDto dto = new PostListDto();
-        dto.setId(post.getId());
-        dto.setAuthorUsername(post.getAuthor().getUsername());
-        dto.setAuthorDisplayName(post.getAuthor().getDisplayName());
-        dto.setAuthorAvatarUrl(post.getAuthor().getAvatarUrl());
-
-        if (post.getCategory() != null) {
-            dto.setCategoryName(post.getCategory().getName());
-        }
-
-        dto.setTitle(post.getTitle());
-        dto.setSlug(post.getSlug());
-        dto.setSummary(post.getSummary());
-        dto.setCoverImageUrl(post.getCoverImageUrl());
-        dto.setStatus(post.getStatus());
-        dto.setViews(post.getViews());
-        dto.setLikesCount(post.getLikesCount());
-        dto.setCommentsCount(post.getCommentsCount());
-        dto.setBookmarksCount(post.getBookmarksCount());
-        
-        if (post.getTags() != null) {
-            dto.setTags(post.getTags().stream()
-                    .map(tag -> new com.server.server.dto.TagDto(
-                        tag.getId(),
-                        tag.getName(),
-                        tag.getSlug(),
-                        tag.getDescription(),
-                        null
-                    ))
-                    .collect(Collectors.toSet()));
+        PostCounterService.PendingCounts pending = postCounterService.getPending(List.of(post.getId()))
+                .get(post.getId());
+        if (pending != null) {
+            dto.setViews(dto.getViews() + pending.getViews());
+            dto.setLikesCount(dto.getLikesCount() + pending.getLikes());
+            dto.setCommentsCount(dto.getCommentsCount() + pending.getComments());
+            dto.setBookmarksCount(dto.getBookmarksCount() + pending.getBookmarks());
         }
-        
         dto.setPublishedAt(post.getPublishedAt());
         dto.setCreatedAt(post.getCreatedAt());
+        dto.setUpdatedAt(post.getUpdatedAt());
         return dto;
     }
 }
@@ -0,0 +1,251 @@
+package com.server.server.service;
+
+import com.server.server.config.ViewBufferProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for post views. {@link #record} only touches memory: views
+ * land in one of several lock-striped maps keyed by the dedup identity (post +
+ * user, or post + IP for anonymous readers), so repeats within a flush window
+ * collapse before reaching the database.
+ *
+ * A flush runs on a fixed delay, early when the buffer fills up, and on
+ * shutdown. Per batch it drops viewers the post's Bloom filter has already seen
+ * ({@link ViewSketchService}, no database read), applies per-post deltas to
+ * the view counters ({@link PostCounterService}) and inserts the new
+ * {@code post_views} rows, as batched JDBC statements in one short transaction.
+ */
+@Slf4j
+@Component
+public class PostViewBuffer {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrendingScoreService trendingScoreService;
+    private final PostCounterService postCounterService;
+    private final ViewSketchService viewSketchService;
+    private final ViewBufferProperties properties;
+
+    private final Stripe[] stripes;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-view-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter countedCounter;
+    private final Timer flushTimer;
+
+    public PostViewBuffer(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TrendingScoreService trendingScoreService,
+            PostCounterService postCounterService,
+            ViewSketchService viewSketchService,
+            ViewBufferProperties properties,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.trendingScoreService = trendingScoreService;
+        this.postCounterService = postCounterService;
+        this.viewSketchService = viewSketchService;
+        this.properties = properties;
+
+        this.stripes = new Stripe[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        Gauge.builder("post.views.buffer.depth", depth, AtomicInteger::get)
+                .description("Distinct views waiting for the next flush")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("post.views.accepted").register(meterRegistry);
+        this.droppedCounter = Counter.builder("post.views.dropped")
+                .description("Views rejected because the buffer was full")
+                .register(meterRegistry);
+        this.countedCounter = Counter.builder("post.views.counted")
+                .description("New unique views written by flushes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("post.views.flush").register(meterRegistry);
+    }
+
+    public void record(Long postId, Long userId, String ipAddress) {
+        if (depth.get() >= properties.getMaxBuffered()) {
+            droppedCounter.increment();
+            return;
+        }
+        buffer(new PendingView(postId, userId, ipAddress, LocalDateTime.now(), 0));
+        acceptedCounter.increment();
+
+        if (depth.get() >= properties.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval:PT5S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<PendingView> views = drain();
+            if (views.isEmpty()) {
+                return;
+            }
+            flushTimer.record(() -> {
+                for (int i = 0; i < views.size(); i += properties.getBatchSize()) {
+                    writeBatch(views.subList(i, Math.min(i + properties.getBatchSize(), views.size())));
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private List<PendingView> drain() {
+        List<PendingView> views = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Map<ViewKey, PendingView> drained;
+            synchronized (stripe) {
+                drained = stripe.views;
+                stripe.views = new HashMap<>();
+            }
+            views.addAll(drained.values());
+            depth.addAndGet(-drained.size());
+        }
+        return views;
+    }
+
+    private void writeBatch(List<PendingView> batch) {
+        try {
+            Map<Long, ViewSketchService.PostSketch> sketches = viewSketchService.getSketches(
+                    batch.stream().map(PendingView::getPostId).collect(Collectors.toSet()));
+            List<PendingView> counted = transactionTemplate.execute(status -> write(batch, sketches));
+            // Sketches change only once the rows are committed, so a failed batch is retried as-is
+            for (PendingView view : counted) {
+                sketches.get(view.getPostId()).record(view.getUserId(), view.getIpAddress());
+            }
+            counted.stream().map(PendingView::getPostId).distinct().forEach(trendingScoreService::markDirty);
+        } catch (RuntimeException e) {
+            log.error("Flushing {} post views failed, keeping them for the next flush", batch.size(), e);
+            requeue(batch);
+        }
+    }
+
+    private List<PendingView> write(List<PendingView> batch, Map<Long, ViewSketchService.PostSketch> sketches) {
+        Set<Long> postIds = batch.stream().map(PendingView::getPostId).collect(Collectors.toSet());
+        Set<Long> livePostIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM posts WHERE id IN (:ids)", Map.of("ids", postIds), Long.class));
+
+        List<PendingView> fresh = new ArrayList<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (PendingView view : batch) {
+            if (!livePostIds.contains(view.getPostId())
+                    || sketches.get(view.getPostId()).hasSeen(view.getUserId(), view.getIpAddress())) {
+                continue;
+            }
+            fresh.add(view);
+            deltas.merge(view.getPostId(), 1, Integer::sum);
+        }
+        if (fresh.isEmpty()) {
+            return fresh;
+        }
+
+        // Counters before the rows, the lock order PostCounterService requires
+        postCounterService.addViews(deltas);
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO post_views (post_id, user_id, ip_address, created_at) VALUES (?, ?, ?, ?)",
+                fresh.stream()
+                        .map(view -> new Object[] { view.getPostId(), view.getUserId(), view.getIpAddress(),
+                                Timestamp.valueOf(view.getViewedAt()) })
+                        .collect(Collectors.toList()));
+        countedCounter.increment(fresh.size());
+        return fresh;
+    }
+
+    private void requeue(List<PendingView> views) {
+        for (PendingView view : views) {
+            // A batch that keeps failing (e.g. a constraint violation) is given up on
+            if (++view.attempts > MAX_ATTEMPTS || depth.get() >= properties.getMaxBuffered()) {
+                droppedCounter.increment();
+                continue;
+            }
+            buffer(view);
+        }
+    }
+
+    private void buffer(PendingView view) {
+        ViewKey key = view.key();
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        synchronized (stripe) {
+            if (stripe.views.putIfAbsent(key, view) == null) {
+                depth.incrementAndGet();
+            }
+        }
+    }
+
+    private static class Stripe {
+        private Map<ViewKey, PendingView> views = new HashMap<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class ViewKey {
+        private Long postId;
+        private Long userId;
+        private String ipAddress;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class PendingView {
+        private Long postId;
+        private Long userId;
+        private String ipAddress;
+        private LocalDateTime viewedAt;
+        private int attempts;
+
+        // Signed-in readers are unique per user, anonymous ones per IP
+        ViewKey key() {
+            return new ViewKey(postId, userId, userId == null ? ipAddress : null);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.server.server.service;
+
+import com.server.server.config.SimilarPostsProperties;
+import com.server.server.domain.PostSimilarity;
+import com.server.server.domain.PostStatus;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.PostSimilarityRepository;
+import com.server.server.repository.TagRepository;
+import com.server.server.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the precomputed {@code post_similarities} lists behind
+ * {@code /api/posts/{id}/similar}.
+ *
+ * Similarity is an idf-weighted Jaccard overlap of tag sets plus a bonus for a
+ * shared category. Each post's candidates are the newest posts carrying each of
+ * its tags, and the newest in its category, a capped list per tag and category;
+ * so a post scores the same candidates whichever batch it is recomputed in. Posts whose tags,
+ * category or status change are recomputed by a short-interval job together with
+ * the posts that list them; a periodic full rebuild refreshes everything else
+ * (idf drift as tags gain posts).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SimilarPostsService {
+
+    private static final int IN_CHUNK = 1000;
+    private static final double EPSILON = 1e-9;
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final PostSimilarityRepository similarityRepository;
+    private final SimilarPostsProperties properties;
+
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+
+    public Page<Long> getSimilarPostIds(Long postId, Pageable pageable) {
+        return similarityRepository.findSimilarPostIds(postId, pageable);
+    }
+
+    /**
+     * Schedules the post, and every post whose list mentions it, for recomputation
+     * once the surrounding transaction commits.
+     */
+    public void onPostChanged(Long postId) {
+        Set<Long> affected = new HashSet<>(similarityRepository.findPostIdsReferencing(postId));
+        affected.add(postId);
+        TransactionUtils.afterCommit(() -> dirtyPostIds.addAll(affected));
+    }
+
+    @Scheduled(fixedDelayString = "${app.similar.refresh-interval:PT2M}")
+    @Transactional
+    public void refreshDirty() {
+        // Recomputing a post can mark its new neighbours dirty; those wait for the next run
+        List<Long> pending = new ArrayList<>(dirtyPostIds);
+        dirtyPostIds.removeAll(pending);
+        for (int i = 0; i < pending.size(); i += properties.getBatchSize()) {
+            recompute(pending.subList(i, Math.min(i + properties.getBatchSize(), pending.size())));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.similar.rebuild-initial-delay:PT1M}",
+            fixedDelayString = "${app.similar.rebuild-interval:PT24H}")
+    @Transactional
+    public void rebuildAll() {
+        int posts = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = postRepository.findPublishedIdsAfter(afterId,
+                PageRequest.of(0, properties.getBatchSize()))).isEmpty()) {
+            recompute(ids);
+            posts += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        log.info("Similar posts rebuilt for {} posts", posts);
+    }
+
+    private void recompute(List<Long> seedIds) {
+        Map<Long, Object[]> seeds = loadRows(seedIds);
+        similarityRepository.deleteByPostIdIn(seedIds);
+        if (seeds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Set<Long>> seedTags = loadTags(seeds.keySet());
+        Set<Long> tagIds = new HashSet<>();
+        seedTags.values().forEach(tagIds::addAll);
+        Set<Long> categoryIds = new HashSet<>();
+        seeds.values().stream().map(row -> (Long) row[1]).filter(Objects::nonNull).forEach(categoryIds::add);
+
+        // One list per tag and category, shared by the seeds in this batch that carry it
+        PageRequest candidateLimit = PageRequest.of(0, properties.getMaxCandidatesPerTag());
+        Map<Long, List<Long>> tagCandidates = new HashMap<>();
+        tagIds.forEach(tagId -> tagCandidates.put(tagId, postRepository.findPublishedIdsByTagId(tagId, candidateLimit)));
+        Map<Long, List<Long>> categoryCandidates = new HashMap<>();
+        categoryIds.forEach(categoryId -> categoryCandidates.put(categoryId,
+                postRepository.findPublishedIdsByCategoryId(categoryId, candidateLimit)));
+
+        Set<Long> candidateIds = new HashSet<>();
+        tagCandidates.values().forEach(candidateIds::addAll);
+        categoryCandidates.values().forEach(candidateIds::addAll);
+        Map<Long, Object[]> candidates = loadRows(candidateIds);
+        Map<Long, Set<Long>> candidateTags = loadTags(candidates.keySet());
+
+        Set<Long> allTagIds = new HashSet<>(tagIds);
+        candidateTags.values().forEach(allTagIds::addAll);
+        Map<Long, Double> tagWeights = loadTagWeights(allTagIds);
+
+        List<PostSimilarity> rows = new ArrayList<>();
+        Map<Long, Map<Long, Double>> neighbourScores = new HashMap<>();
+        for (Map.Entry<Long, Object[]> seed : seeds.entrySet()) {
+            Long seedId = seed.getKey();
+            Long seedCategory = (Long) seed.getValue()[1];
+            Set<Long> tags = seedTags.getOrDefault(seedId, Set.of());
+
+            Set<Long> seedCandidates = new HashSet<>();
+            tags.forEach(tagId -> seedCandidates.addAll(tagCandidates.get(tagId)));
+            if (seedCategory != null) {
+                seedCandidates.addAll(categoryCandidates.get(seedCategory));
+            }
+            seedCandidates.remove(seedId);
+
+            List<Map.Entry<Long, Double>> scored = new ArrayList<>();
+            for (Long candidateId : seedCandidates) {
+                Object[] candidate = candidates.get(candidateId);
+                if (candidate == null) {
+                    continue;
+                }
+                double score = score(tags, seedCategory, candidateTags.getOrDefault(candidateId, Set.of()),
+                        (Long) candidate[1], tagWeights);
+                if (score > 0) {
+                    scored.add(Map.entry(candidateId, score));
+                }
+            }
+            scored.sort(Comparator.<Map.Entry<Long, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                    .thenComparing(entry -> (LocalDateTime) candidates.get(entry.getKey())[2],
+                            Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()));
+
+            for (int rank = 0; rank < Math.min(properties.getTopN(), scored.size()); rank++) {
+                Map.Entry<Long, Double> entry = scored.get(rank);
+                rows.add(new PostSimilarity(seedId, rank, entry.getKey(), entry.getValue()));
+                neighbourScores.computeIfAbsent(entry.getKey(), id -> new HashMap<>()).put(seedId, entry.getValue());
+            }
+        }
+        similarityRepository.saveAll(rows);
+        propagate(neighbourScores, seeds.keySet());
+    }
+
+    /**
+     * Similarity is symmetric: when a seed enters a neighbour's top N (or its score
+     * there changed), the neighbour is marked dirty. Neighbours already listing the
+     * seed with the same score are left alone, so propagation settles.
+     */
+    private void propagate(Map<Long, Map<Long, Double>> neighbourScores, Set<Long> seedIds) {
+        Set<Long> neighbours = new HashSet<>(neighbourScores.keySet());
+        neighbours.removeAll(seedIds);
+        if (neighbours.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<PostSimilarity>> lists = new HashMap<>();
+        for (List<Long> chunk : partition(neighbours)) {
+            for (PostSimilarity row : similarityRepository.findAllByPostIdIn(chunk)) {
+                lists.computeIfAbsent(row.getPostId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        Set<Long> dirty = new HashSet<>();
+        for (Long neighbour : neighbours) {
+            List<PostSimilarity> list = lists.getOrDefault(neighbour, List.of());
+            double minScore = list.stream().mapToDouble(PostSimilarity::getScore).min().orElse(0);
+            for (Map.Entry<Long, Double> seed : neighbourScores.get(neighbour).entrySet()) {
+                boolean listed = list.stream().anyMatch(row -> row.getSimilarPostId().equals(seed.getKey())
+                        && Math.abs(row.getScore() - seed.getValue()) < EPSILON);
+                if (!listed && (list.size() < properties.getTopN() || seed.getValue() > minScore)) {
+                    dirty.add(neighbour);
+                    break;
+                }
+            }
+        }
+        TransactionUtils.afterCommit(() -> dirtyPostIds.addAll(dirty));
+    }
+
+    private double score(Set<Long> tagsA, Long categoryA, Set<Long> tagsB, Long categoryB,
+            Map<Long, Double> tagWeights) {
+        double intersection = 0;
+        double union = 0;
+        for (Long tag : tagsA) {
+            double weight = tagWeights.getOrDefault(tag, 0.0);
+            union += weight;
+            if (tagsB.contains(tag)) {
+                intersection += weight;
+            }
+        }
+        for (Long tag : tagsB) {
+            if (!tagsA.contains(tag)) {
+                union += tagWeights.getOrDefault(tag, 0.0);
+            }
+        }
+        double jaccard = union > 0 ? intersection / union : 0;
+        boolean sameCategory = categoryA != null && categoryA.equals(categoryB);
+        return properties.getTagWeight() * jaccard + (sameCategory ? properties.getCategoryWeight() : 0);
+    }
+
+    // idf weight per tag: rare tags say more about a post than ubiquitous ones
+    private Map<Long, Double> loadTagWeights(Set<Long> tagIds) {
+        long publishedPosts = Math.max(postRepository.countByStatus(PostStatus.PUBLISHED), 1);
+        Map<Long, Double> weights = new HashMap<>();
+        for (List<Long> chunk : partition(tagIds)) {
+            for (Object[] row : tagRepository.countPublishedPostsByTagIdIn(chunk)) {
+                long documentFrequency = Math.max((Long) row[1], 1);
+                weights.put((Long) row[0], Math.log(1 + (double) publishedPosts / documentFrequency));
+            }
+        }
+        return weights;
+    }
+
+    // [id, categoryId, publishedAt] of the published posts among ids
+    private Map<Long, Object[]> loadRows(Collection<Long> ids) {
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (List<Long> chunk : partition(ids)) {
+            postRepository.findSimilarityRowsByIdIn(chunk).forEach(row -> rows.put((Long) row[0], row));
+        }
+        return rows;
+    }
+
+    private Map<Long, Set<Long>> loadTags(Collection<Long> postIds) {
+        Map<Long, Set<Long>> tags = new HashMap<>();
+        for (List<Long> chunk : partition(postIds)) {
+            for (Object[] row : postRepository.findTagIdRowsByPostIdIn(chunk)) {
+                tags.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+            }
+        }
+        return tags;
+    }
+
+    private static List<List<Long>> partition(Collection<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += IN_CHUNK) {
+            chunks.add(list.subList(i, Math.min(i + IN_CHUNK, list.size())));
+        }
+        return chunks;
+    }
+}
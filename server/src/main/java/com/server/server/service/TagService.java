@@ -1,13 +1,16 @@
 package com.server.server.service;
 
 import com.server.server.domain.Tag;
+import com.server.server.dto.ResourceVersion;
 import com.server.server.dto.TagDto;
 import com.server.server.repository.TagRepository;
+import com.server.server.util.HttpCacheUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -48,6 +51,16 @@ public class TagService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Validators for the tag search endpoint. Covers the whole tag table, so any
+     * query's result revalidates after a tag is created, renamed or deleted.
+     */
+    public ResourceVersion getTagsVersion() {
+        Object[] row = tagRepository.findCollectionVersion().get(0);
+        LocalDateTime lastModified = (LocalDateTime) row[1];
+        return new ResourceVersion(HttpCacheUtils.etag("tags", row[0], lastModified), lastModified);
+    }
+
     @Transactional
     public TagDto createTag(com.server.server.dto.CreateTagRequest request) {
         if (tagRepository.existsByName(request.getName())) {
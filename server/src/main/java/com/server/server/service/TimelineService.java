@@ -0,0 +1,161 @@
+package com.server.server.service;
+
+import com.server.server.config.TimelineProperties;
+import com.server.server.domain.Post;
+import com.server.server.domain.UserTimelineState;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.TimelineRepository;
+import com.server.server.repository.UserTimelineStateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fan-out-on-write home timelines: published posts are pushed into each
+ * follower's {@code user_timelines} rows, so reading the feed is a single range
+ * scan. Users whose timeline was never built are served by the follows join and
+ * materialized in the background on their first feed read.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class TimelineService {
+
+    private final TimelineRepository timelineRepository;
+    private final UserTimelineStateRepository timelineStateRepository;
+    private final PostRepository postRepository;
+    private final TimelineProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<Long> materializing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService materializer = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "timeline-materializer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TimelineService(TimelineRepository timelineRepository,
+            UserTimelineStateRepository timelineStateRepository,
+            PostRepository postRepository,
+            TimelineProperties properties,
+            PlatformTransactionManager transactionManager) {
+        this.timelineRepository = timelineRepository;
+        this.timelineStateRepository = timelineStateRepository;
+        this.postRepository = postRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Page<Long> getFeedPostIds(Long userId, Pageable pageable) {
+        if (!timelineStateRepository.existsById(userId)) {
+            requestMaterialize(userId);
+            return postRepository.findFeedPostIds(userId, pageable);
+        }
+        if (pageable.getOffset() >= properties.getMaxLength()) {
+            return new PageImpl<>(List.of(), pageable, properties.getMaxLength());
+        }
+        return timelineRepository.findPostIds(userId, pageable);
+    }
+
+    public List<Long> getFeedPostIdsBefore(Long userId, LocalDateTime ts, Long id, Pageable pageable) {
+        if (!timelineStateRepository.existsById(userId)) {
+            requestMaterialize(userId);
+            return postRepository.findFeedPostIdsBefore(userId, ts, id, pageable);
+        }
+        return timelineRepository.findPostIdsBefore(userId, ts, id, pageable);
+    }
+
+    /**
+     * Pushes a newly published post to the timelines of the author's followers.
+     * Runs in the publishing transaction, so the post and its fan-out commit together.
+     */
+    @Transactional
+    public void onPublished(Post post) {
+        timelineRepository.fanOut(post.getId(), post.getAuthor().getId(), post.getPublishedAt());
+    }
+
+    @Transactional
+    public void onUnpublished(Long postId) {
+        timelineRepository.deleteByPostId(postId);
+    }
+
+    @Transactional
+    public void onFollow(Long followerId, Long authorId) {
+        timelineRepository.backfillAuthor(followerId, authorId, properties.getMaxLength());
+    }
+
+    @Transactional
+    public void onUnfollow(Long followerId, Long authorId) {
+        timelineRepository.deleteByUserIdAndAuthorId(followerId, authorId);
+    }
+
+    /**
+     * Builds a cold user's timeline from everyone they follow. Fan-out and follow
+     * backfills that race with the build are harmless: all writers use INSERT IGNORE.
+     */
+    public void materialize(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (timelineStateRepository.existsById(userId)) {
+                return;
+            }
+            int entries = timelineRepository.materialize(userId, properties.getMaxLength());
+            timelineStateRepository.save(new UserTimelineState(userId, LocalDateTime.now()));
+            log.debug("Materialized timeline for user {} with {} entries", userId, entries);
+        });
+    }
+
+    /**
+     * Keeps every timeline within the configured length. Fan-out only appends, so
+     * timelines of users following prolific authors grow past the cap between runs.
+     */
+    @Scheduled(fixedDelayString = "${app.timeline.trim-interval:PT1H}")
+    @Transactional
+    public void trimTimelines() {
+        int maxLength = properties.getMaxLength();
+        for (Long userId : timelineRepository.findUserIdsOverLength(maxLength)) {
+            timelineRepository.findTrimBoundary(userId, maxLength).stream().findFirst()
+                    .ifPresent(row -> timelineRepository.deleteOlderThan(userId,
+                            toLocalDateTime(row[0]), ((Number) row[1]).longValue()));
+        }
+    }
+
+    // Native rows carry the driver's temporal type
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private void requestMaterialize(Long userId) {
+        if (!materializing.add(userId)) {
+            return;
+        }
+        materializer.execute(() -> {
+            try {
+                materialize(userId);
+            } catch (Exception e) {
+                log.warn("Failed to materialize timeline for user {}", userId, e);
+            } finally {
+                materializing.remove(userId);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        materializer.shutdown();
+    }
+}
@@ -0,0 +1,200 @@
+package com.server.server.service;
+
+import com.server.server.config.TrendingProperties;
+import com.server.server.domain.PostStatus;
+import com.server.server.domain.PostTrendingScore;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.PostTrendingScoreRepository;
+import com.server.server.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the materialized {@code post_trending_score} table behind
+ * {@code /api/posts/trending}.
+ *
+ * The score is {@code log2(weighted engagement) + publishedAt / halfLife}: a post
+ * published one half-life later ranks like one with twice the engagement. Unlike
+ * an age-based gravity formula it does not change as time passes, so only posts
+ * whose counters moved need rescoring. Writers mark those posts dirty after
+ * commit; a short-interval job rescores them, and a slower reconcile pass catches
+ * anything the in-memory dirty set lost (restarts, other instances' writes). The
+ * first reconcile after startup rescores every row, so weight or half-life
+ * changes take effect on deploy.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingScoreService {
+
+    private static final int MAX_EXECUTION_TIME_EXCEEDED = 3024;
+
+    private final PostRepository postRepository;
+    private final PostTrendingScoreRepository trendingScoreRepository;
+    private final PostCounterService postCounterService;
+    private final TrendingProperties properties;
+
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRescorePending = true;
+
+    public void markDirty(Long postId) {
+        TransactionUtils.afterCommit(() -> dirtyPostIds.add(postId));
+    }
+
+    /**
+     * A page of trending post ids. The query is capped at 250 ms on MySQL; a page
+     * that hits the cap comes back empty rather than failing the request. Call it
+     * outside a transaction: the failed query would mark a surrounding one
+     * rollback-only.
+     */
+    public Page<Long> getTrendingPostIds(LocalDateTime since, Pageable pageable) {
+        if (pageable.getOffset() >= properties.getMaxResults()) {
+            return new PageImpl<>(List.of(), pageable, properties.getMaxResults());
+        }
+        Page<Long> page;
+        try {
+            page = trendingScoreRepository.findTrendingPostIds(since, pageable);
+        } catch (DataAccessException e) {
+            if (!isStatementTimeout(e)) {
+                throw e;
+            }
+            log.warn("Trending query since {} timed out, returning an empty page", since);
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        return new PageImpl<>(page.getContent(), pageable,
+                Math.min(page.getTotalElements(), properties.getMaxResults()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval:PT1M}")
+    @Transactional
+    public void refreshDirtyScores() {
+        if (dirtyPostIds.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>();
+        for (Long postId : dirtyPostIds) {
+            dirtyPostIds.remove(postId);
+            batch.add(postId);
+            if (batch.size() == properties.getBatchSize()) {
+                rescore(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            rescore(batch);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.trending.reconcile-initial-delay:PT30S}",
+            fixedDelayString = "${app.trending.reconcile-interval:PT6H}")
+    @Transactional
+    public void reconcile() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        int removed = trendingScoreRepository.deleteStale(cutoff);
+
+        boolean full = fullRescorePending;
+        int rescored = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = postRepository.findIdsWithStaleTrendingScore(cutoff, full, afterId,
+                PageRequest.of(0, properties.getBatchSize()))).isEmpty()) {
+            rescore(ids);
+            rescored += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        fullRescorePending = false;
+        log.info("Trending reconcile{}: {} rescored, {} removed", full ? " (full)" : "", rescored, removed);
+    }
+
+    private void rescore(Collection<Long> postIds) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        Map<Long, PostTrendingScore> existing = trendingScoreRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(PostTrendingScore::getPostId, Function.identity()));
+
+        Map<Long, PostCounterService.PendingCounts> pending = postCounterService.getPending(postIds);
+
+        List<PostTrendingScore> toSave = new ArrayList<>();
+        Set<Long> toDelete = new HashSet<>(postIds);
+        for (Object[] row : postRepository.findTrendingInputRowsByIdIn(postIds)) {
+            Long postId = (Long) row[0];
+            LocalDateTime publishedAt = (LocalDateTime) row[2];
+            if (row[1] != PostStatus.PUBLISHED || publishedAt == null || publishedAt.isBefore(cutoff)) {
+                continue;
+            }
+            toDelete.remove(postId);
+
+            PostTrendingScore score = existing.get(postId);
+            if (score == null) {
+                score = new PostTrendingScore();
+                score.setPostId(postId);
+            }
+            score.setPublishedAt(publishedAt);
+            score.setViews((Long) row[3]);
+            score.setLikesCount((Integer) row[4]);
+            score.setCommentsCount((Integer) row[5]);
+            score.setBookmarksCount((Integer) row[6]);
+            PostCounterService.PendingCounts counts = pending.get(postId);
+            if (counts != null) {
+                score.setViews(score.getViews() + counts.getViews());
+                score.setLikesCount(score.getLikesCount() + counts.getLikes());
+                score.setCommentsCount(score.getCommentsCount() + counts.getComments());
+                score.setBookmarksCount(score.getBookmarksCount() + counts.getBookmarks());
+            }
+            score.setScore(computeScore(score));
+            score.setComputedAt(LocalDateTime.now());
+            toSave.add(score);
+        }
+
+        trendingScoreRepository.saveAll(toSave);
+        toDelete.retainAll(existing.keySet());
+        if (!toDelete.isEmpty()) {
+            trendingScoreRepository.deleteByPostIdIn(toDelete);
+        }
+    }
+
+    // MySQL reports a statement stopped by MAX_EXECUTION_TIME as error 3024, which
+    // is not always translated to a timeout exception
+    private static boolean isStatementTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof SQLTimeoutException
+                    || (cause instanceof SQLException
+                            && ((SQLException) cause).getErrorCode() == MAX_EXECUTION_TIME_EXCEEDED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double computeScore(PostTrendingScore s) {
+        double weighted = s.getViews() * properties.getViewWeight()
+                + s.getLikesCount() * properties.getLikeWeight()
+                + s.getCommentsCount() * properties.getCommentWeight()
+                + s.getBookmarksCount() * properties.getBookmarkWeight();
+        double engagement = Math.log(Math.max(weighted, 1)) / Math.log(2);
+        long publishedEpoch = s.getPublishedAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+        return engagement + (double) publishedEpoch / properties.getHalfLife().toSeconds();
+    }
+}
@@ -0,0 +1,180 @@
+package com.server.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.server.server.config.NotificationProperties;
+import com.server.server.dto.UnreadCountDto;
+import com.server.server.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user unread notification counts, kept on {@code users.unread_notifications}
+ * and cached in memory, so polling the count is a cache hit.
+ *
+ * Every write that changes whether a notification is unread adjusts the counter
+ * in its own transaction, right after the notification rows (always that order,
+ * so the two writers cannot deadlock). Once the transaction commits, the cached
+ * counts are dropped and the new values pushed to their users. A reconciliation
+ * job walks the users a batch at a time and recounts any counter that drifted
+ * from the rows.
+ */
+@Slf4j
+@Component
+public class UnreadNotificationCounter {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate loadTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationProperties properties;
+    private final Cache<Long, Integer> counts;
+    // Last user id the reconciliation checked; 0 starts a new pass
+    private final AtomicLong reconcileCursor = new AtomicLong();
+    private final Counter driftCounter;
+
+    public UnreadNotificationCounter(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SimpMessagingTemplate messagingTemplate,
+            NotificationProperties properties,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Callers hold no transaction, so a load reads a fresh snapshot; an older one
+        // could miss a change whose invalidation ran before the load started. A
+        // caller's transaction is joined rather than suspended, so a miss never
+        // holds a second pooled connection.
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setReadOnly(true);
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(properties.getUnreadCacheSize())
+                .expireAfterWrite(properties.getUnreadCacheTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "notifications.unread");
+        this.driftCounter = Counter.builder("notifications.unread.drift")
+                .description("Unread counters corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    public long get(Long userId) {
+        Integer count = counts.get(userId, this::load);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Applies per-user deltas in the caller's transaction, which must already
+     * have written the notification rows they account for.
+     */
+    public void add(Map<Long, Integer> deltas) {
+        Map<Long, Integer> changed = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (changed.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE users SET unread_notifications = GREATEST(unread_notifications + :delta, 0), " +
+                        "updated_at = updated_at WHERE id = :id",
+                changed.entrySet().stream()
+                        .map(entry -> new MapSqlParameterSource()
+                                .addValue("id", entry.getKey())
+                                .addValue("delta", entry.getValue()))
+                        .toArray(SqlParameterSource[]::new));
+        publish(read(changed.keySet()));
+    }
+
+    /**
+     * Checks the next batch of users against their notification rows and recounts
+     * the counters that drifted; a pass over all users takes a few runs.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.reconcile-interval:PT1M}")
+    public void reconcile() {
+        int batchSize = properties.getReconcileBatchSize();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT u.id, u.unread_notifications, " +
+                            "(SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = u.id AND n.is_read = FALSE) " +
+                            "FROM users u WHERE u.id > :after ORDER BY u.id LIMIT :limit",
+                    Map.of("after", reconcileCursor.get(), "limit", batchSize),
+                    (row, rowNum) -> new Object[] { row.getLong(1), row.getLong(2), row.getLong(3) });
+            reconcileCursor.set(rows.size() < batchSize ? 0 : (Long) rows.get(rows.size() - 1)[0]);
+
+            List<Long> drifted = rows.stream()
+                    .filter(row -> !row[1].equals(row[2]))
+                    .map(row -> (Long) row[0])
+                    .collect(Collectors.toList());
+            if (drifted.isEmpty()) {
+                return;
+            }
+            // Recounted in the update itself, so a change made since the check is not lost
+            jdbcTemplate.update(
+                    "UPDATE users SET unread_notifications = " +
+                            "(SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = users.id AND n.is_read = FALSE), " +
+                            "updated_at = updated_at WHERE id IN (:ids)",
+                    Map.of("ids", drifted));
+            driftCounter.increment(drifted.size());
+            log.info("Reconciled unread notification counters of {} users", drifted.size());
+            publish(read(drifted));
+        });
+    }
+
+    private Integer load(Long userId) {
+        return loadTemplate.execute(status -> jdbcTemplate.queryForList(
+                "SELECT unread_notifications FROM users WHERE id = :id", Map.of("id", userId), Integer.class)
+                .stream().findFirst().orElse(null));
+    }
+
+    private Map<Long, Unread> read(Collection<Long> userIds) {
+        Map<Long, Unread> values = new HashMap<>();
+        jdbcTemplate.query("SELECT id, username, unread_notifications FROM users WHERE id IN (:ids)",
+                Map.of("ids", userIds),
+                row -> {
+                    values.put(row.getLong(1), new Unread(row.getString(2), row.getInt(3)));
+                });
+        return values;
+    }
+
+    // Dropped rather than overwritten: commits can finish out of order, and the
+    // next read loads whatever is committed by then
+    private void publish(Map<Long, Unread> values) {
+        TransactionUtils.afterCommit(() -> values.forEach((userId, unread) -> {
+            counts.invalidate(userId);
+            try {
+                messagingTemplate.convertAndSendToUser(unread.getUsername(), "/queue/notifications",
+                        new UnreadCountDto(unread.getCount()));
+            } catch (RuntimeException e) {
+                log.warn("Pushing unread count to user {} failed", userId, e);
+            }
+        }));
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Unread {
+        private String username;
+        private int count;
+    }
+}
@@ -0,0 +1,323 @@
+package com.server.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.server.server.config.ViewBufferProperties;
+import com.server.server.domain.PostViewSketch;
+import com.server.server.repository.PostViewSketchRepository;
+import com.server.server.util.HashUtils;
+import com.server.server.util.HyperLogLog;
+import com.server.server.util.ScalableBloomFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-post unique-viewer sketches used by {@link PostViewBuffer}: a scalable
+ * Bloom filter answers "has this viewer already been counted?" in memory, and a
+ * HyperLogLog estimates unique visitors for the post detail.
+ *
+ * Sketches of recently viewed posts are kept in a bounded cache and loaded in one
+ * batch per flush otherwise. A post without a stored sketch is seeded once from
+ * its {@code post_views} rows. Changed sketches are written back periodically
+ * and on shutdown; sketches evicted while dirty are held until that write. Each
+ * instance keeps its own copy, so a write-back locks the stored sketch and
+ * merges it in first (Bloom bits OR-ed, HyperLogLog registers maxed): viewers
+ * counted by other instances are kept, and learned here as well.
+ */
+@Slf4j
+@Service
+public class ViewSketchService {
+
+    private final PostViewSketchRepository sketchRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ViewBufferProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<Long, PostSketch> sketches;
+    private final Map<Long, PostSketch> evictedDirty = new ConcurrentHashMap<>();
+
+    public ViewSketchService(PostViewSketchRepository sketchRepository,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ViewBufferProperties properties) {
+        this.sketchRepository = sketchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.sketches = Caffeine.newBuilder()
+                .maximumSize(properties.getSketchCacheSize())
+                .evictionListener((Long postId, PostSketch sketch, RemovalCause cause) -> {
+                    if (sketch != null && sketch.isDirty()) {
+                        evictedDirty.put(postId, sketch);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Sketches for the given posts: cached ones as-is, the rest read in one batch
+     * (or seeded from {@code post_views}) and cached.
+     */
+    public Map<Long, PostSketch> getSketches(Collection<Long> postIds) {
+        Map<Long, PostSketch> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long postId : postIds) {
+            PostSketch sketch = sketches.getIfPresent(postId);
+            if (sketch == null) {
+                sketch = evictedDirty.get(postId);
+            }
+            if (sketch != null) {
+                result.put(postId, sketch);
+            } else {
+                missing.add(postId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        for (PostViewSketch stored : sketchRepository.findAllById(missing)) {
+            PostSketch sketch = new PostSketch(
+                    ScalableBloomFilter.fromBytes(stored.getBloom(), properties.getBloomMaxSize().toBytes()),
+                    HyperLogLog.fromBytes(stored.getHll()));
+            result.put(stored.getPostId(), sketch);
+            missing.remove(stored.getPostId());
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(seed(missing));
+        }
+        for (Long postId : postIds) {
+            PostSketch sketch = result.get(postId);
+            if (sketch != null) {
+                sketches.asMap().putIfAbsent(postId, sketch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Approximate unique visitors: from the in-memory sketch when the post has one,
+     * otherwise the estimate stored at the last write-back. Null before the first
+     * view is flushed.
+     */
+    public Long getUniqueVisitors(Long postId) {
+        PostSketch sketch = sketches.getIfPresent(postId);
+        if (sketch != null) {
+            return sketch.uniqueVisitors();
+        }
+        return sketchRepository.findUniqueVisitors(postId).orElse(null);
+    }
+
+    /**
+     * Seeds and writes the sketches of those posts that have none stored yet, and
+     * returns the posts that now do. Raw rows of the others must be kept: seeding
+     * is the only way their viewers get into a sketch.
+     */
+    public Set<Long> ensureStored(Collection<Long> postIds) {
+        Set<Long> stored = findStoredPostIds(postIds);
+        Set<Long> missing = new HashSet<>(postIds);
+        missing.removeAll(stored);
+        if (missing.isEmpty()) {
+            return stored;
+        }
+        getSketches(missing);
+        persist();
+        return findStoredPostIds(postIds);
+    }
+
+    private Set<Long> findStoredPostIds(Collection<Long> postIds) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT post_id FROM post_view_sketches WHERE post_id IN (:ids)", Map.of("ids", postIds), Long.class));
+    }
+
+    // Builds sketches from the existing rows, using the same identities the flush checks
+    private Map<Long, PostSketch> seed(Set<Long> postIds) {
+        Map<Long, List<String[]>> viewers = new HashMap<>();
+        jdbcTemplate.query("SELECT post_id, user_id, ip_address FROM post_views WHERE post_id IN (:postIds)",
+                Map.of("postIds", postIds),
+                row -> {
+                    Object userId = row.getObject(2);
+                    viewers.computeIfAbsent(row.getLong(1), id -> new ArrayList<>())
+                            .add(new String[] { userId != null ? userId.toString() : null, row.getString(3) });
+                });
+
+        Map<Long, PostSketch> seeded = new HashMap<>();
+        for (Long postId : postIds) {
+            List<String[]> rows = viewers.getOrDefault(postId, List.of());
+            PostSketch sketch = newSketch(rows.size() * 2);
+            for (String[] viewer : rows) {
+                sketch.record(viewer[0] != null ? Long.valueOf(viewer[0]) : null, viewer[1]);
+            }
+            seeded.put(postId, sketch);
+        }
+        return seeded;
+    }
+
+    private PostSketch newSketch(int expectedViewers) {
+        return new PostSketch(
+                new ScalableBloomFilter(Math.max(properties.getBloomInitialCapacity(), expectedViewers),
+                        properties.getFalsePositiveRate(), properties.getBloomMaxSize().toBytes()),
+                new HyperLogLog(properties.getHllPrecision()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.sketch-persist-interval:PT1M}")
+    public void persist() {
+        Map<Long, PostSketch> dirty = new HashMap<>(evictedDirty);
+        sketches.asMap().forEach((postId, sketch) -> {
+            if (sketch.isDirty()) {
+                dirty.put(postId, sketch);
+            }
+        });
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Long> postIds = new ArrayList<>(dirty.keySet());
+        for (int i = 0; i < postIds.size(); i += properties.getBatchSize()) {
+            List<Long> batch = postIds.subList(i, Math.min(i + properties.getBatchSize(), postIds.size()));
+            try {
+                persistBatch(batch, dirty);
+            } catch (RuntimeException e) {
+                log.error("Persisting view sketches for {} posts failed, retrying on the next run", batch.size(), e);
+            }
+        }
+    }
+
+    private void persistBatch(List<Long> batch, Map<Long, PostSketch> dirty) {
+        Map<Long, Long> versions = transactionTemplate.execute(status -> writeBatch(batch, dirty));
+        versions.forEach((postId, version) -> {
+            PostSketch sketch = dirty.get(postId);
+            sketch.markPersisted(version);
+            evictedDirty.remove(postId, sketch);
+        });
+    }
+
+    // Merges the stored sketches, locked until commit, into ours and writes the result
+    private Map<Long, Long> writeBatch(List<Long> batch, Map<Long, PostSketch> dirty) {
+        // Posts deleted since their last view: drop the sketch instead of violating the FK
+        Set<Long> livePostIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM posts WHERE id IN (:ids)", Map.of("ids", batch), Long.class));
+        Map<Long, byte[][]> stored = new HashMap<>();
+        if (!livePostIds.isEmpty()) {
+            jdbcTemplate.query("SELECT post_id, bloom, hll FROM post_view_sketches WHERE post_id IN (:ids) " +
+                            "ORDER BY post_id FOR UPDATE",
+                    Map.of("ids", livePostIds),
+                    row -> {
+                        stored.put(row.getLong(1), new byte[][] { row.getBytes(2), row.getBytes(3) });
+                    });
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        Map<Long, Long> versions = new HashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long bloomMaxBytes = properties.getBloomMaxSize().toBytes();
+        for (Long postId : batch) {
+            PostSketch sketch = dirty.get(postId);
+            if (!livePostIds.contains(postId)) {
+                sketches.invalidate(postId);
+                evictedDirty.remove(postId, sketch);
+                continue;
+            }
+            synchronized (sketch) {
+                byte[][] theirs = stored.get(postId);
+                if (theirs != null) {
+                    sketch.merge(ScalableBloomFilter.fromBytes(theirs[0], bloomMaxBytes),
+                            HyperLogLog.fromBytes(theirs[1]));
+                }
+                rows.add(new Object[] { postId, sketch.bloom.toBytes(), sketch.hll.toBytes(), sketch.uniqueVisitors(),
+                        now });
+                versions.put(postId, sketch.version);
+            }
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO post_view_sketches (post_id, bloom, hll, unique_visitors, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE bloom = VALUES(bloom), hll = VALUES(hll), " +
+                        "unique_visitors = VALUES(unique_visitors), updated_at = VALUES(updated_at)",
+                rows);
+        return versions;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        persist();
+    }
+
+    /**
+     * Bloom filter and HyperLogLog of one post. Identities are "u:" + user id for
+     * signed-in viewers and "i:" + IP address; as with the old exists queries, a
+     * signed-in viewer is unique per user and an anonymous one per IP (including
+     * IPs seen on signed-in views).
+     */
+    public static class PostSketch {
+        private final ScalableBloomFilter bloom;
+        private final HyperLogLog hll;
+        private long version;
+        private long persistedVersion;
+
+        PostSketch(ScalableBloomFilter bloom, HyperLogLog hll) {
+            this.bloom = bloom;
+            this.hll = hll;
+        }
+
+        public synchronized boolean hasSeen(Long userId, String ipAddress) {
+            if (userId != null) {
+                return bloom.mightContain(HashUtils.hash64("u:" + userId));
+            }
+            return ipAddress != null && bloom.mightContain(HashUtils.hash64("i:" + ipAddress));
+        }
+
+        public synchronized void record(Long userId, String ipAddress) {
+            if (userId != null) {
+                long hash = HashUtils.hash64("u:" + userId);
+                bloom.put(hash);
+                hll.add(hash);
+            }
+            if (ipAddress != null) {
+                long hash = HashUtils.hash64("i:" + ipAddress);
+                bloom.put(hash);
+                if (userId == null) {
+                    hll.add(hash);
+                }
+            }
+            version++;
+        }
+
+        // Adds the viewers of another copy of this post's sketch; not a change of its own
+        synchronized void merge(ScalableBloomFilter otherBloom, HyperLogLog otherHll) {
+            bloom.merge(otherBloom);
+            // A copy written before a precision change is left out of the estimate
+            if (otherHll.getPrecision() == hll.getPrecision()) {
+                hll.merge(otherHll);
+            }
+        }
+
+        public synchronized long uniqueVisitors() {
+            return hll.estimate();
+        }
+
+        synchronized boolean isDirty() {
+            return version != persistedVersion;
+        }
+
+        synchronized void markPersisted(long version) {
+            persistedVersion = Math.max(persistedVersion, version);
+        }
+    }
+}
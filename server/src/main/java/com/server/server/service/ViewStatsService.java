@@ -0,0 +1,307 @@
+package com.server.server.service;
+
+import com.server.server.config.ViewStatsProperties;
+import com.server.server.domain.Post;
+import com.server.server.dto.post.ViewStatsDto;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.PostViewStatsDailyRepository;
+import com.server.server.repository.PostViewStatsHourlyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rolls raw {@code post_views} rows up into per-post hourly and daily counts, and
+ * prunes raw rows once they are rolled up and past the retention window.
+ *
+ * The rollup walks {@code post_views} by id from a watermark in
+ * {@code view_rollup_state}, one chunk per transaction: the chunk's counts are
+ * added to the rollup tables and the watermark advanced in the same commit, so an
+ * interrupted run resumes where it stopped without counting anything twice. A
+ * pass only reads up to the highest id seen when the previous pass ended, so
+ * flushes that were still in flight then have committed (ids are assigned before
+ * commit, not in commit order). The state row is locked per chunk, which keeps
+ * several instances from rolling up the same rows.
+ *
+ * Pruning walks the oldest rolled-up ids in small autocommitted batches with a
+ * pause in between. Each batch first makes sure the affected posts have a stored
+ * view sketch ({@link ViewSketchService}), since dedup can no longer seed from
+ * rows that are gone.
+ */
+@Slf4j
+@Service
+public class ViewStatsService {
+
+    private static final String STATE_NAME = "post_views";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostRepository postRepository;
+    private final PostViewStatsHourlyRepository hourlyRepository;
+    private final PostViewStatsDailyRepository dailyRepository;
+    private final ViewSketchService viewSketchService;
+    private final ViewStatsProperties properties;
+
+    public ViewStatsService(NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PostRepository postRepository,
+            PostViewStatsHourlyRepository hourlyRepository,
+            PostViewStatsDailyRepository dailyRepository,
+            ViewSketchService viewSketchService,
+            ViewStatsProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postRepository = postRepository;
+        this.hourlyRepository = hourlyRepository;
+        this.dailyRepository = dailyRepository;
+        this.viewSketchService = viewSketchService;
+        this.properties = properties;
+    }
+
+    /**
+     * Views of a post per hour or day, for its author or an admin. Defaults to the
+     * last 48 hours or the last 30 days.
+     */
+    public ViewStatsDto getViewStats(Long postId, Long userId, boolean admin, ViewStatsDto.Granularity granularity,
+            LocalDateTime from, LocalDateTime to) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+        if (!admin && !post.getAuthor().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only view statistics of your own posts");
+        }
+
+        boolean hourly = granularity == ViewStatsDto.Granularity.HOURLY;
+        ChronoUnit unit = hourly ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime end = (to != null ? to : LocalDateTime.now()).truncatedTo(unit);
+        LocalDateTime start = (from != null ? from : end.minus(hourly ? 47 : 29, unit)).truncatedTo(unit);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (unit.between(start, end) >= properties.getMaxBuckets()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range is limited to " + properties.getMaxBuckets() + " buckets");
+        }
+
+        List<ViewStatsDto.Bucket> buckets;
+        if (hourly) {
+            buckets = hourlyRepository.findByPostIdAndBucketStartBetweenOrderByBucketStart(postId, start, end)
+                    .stream()
+                    .map(stats -> new ViewStatsDto.Bucket(stats.getBucketStart(), stats.getViews(),
+                            stats.getSignedInViews()))
+                    .collect(Collectors.toList());
+        } else {
+            buckets = dailyRepository.findByPostIdAndViewDateBetweenOrderByViewDate(postId, start.toLocalDate(),
+                            end.toLocalDate())
+                    .stream()
+                    .map(stats -> new ViewStatsDto.Bucket(stats.getViewDate().atStartOfDay(), stats.getViews(),
+                            stats.getSignedInViews()))
+                    .collect(Collectors.toList());
+        }
+        long totalViews = buckets.stream().mapToLong(ViewStatsDto.Bucket::getViews).sum();
+        long signedInViews = buckets.stream().mapToLong(ViewStatsDto.Bucket::getSignedInViews).sum();
+        return new ViewStatsDto(postId, granularity, start, end, totalViews, signedInViews, buckets);
+    }
+
+    @Scheduled(fixedDelayString = "${app.view-stats.rollup-interval:PT1M}")
+    public void rollup() {
+        try {
+            jdbcTemplate.update("INSERT IGNORE INTO view_rollup_state (name, last_id, pending_max_id, updated_at) " +
+                    "VALUES (:name, 0, 0, :now)", Map.of("name", STATE_NAME, "now", now()));
+            for (int i = 0; i < properties.getRollupMaxChunks(); i++) {
+                if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> rollupChunk()))) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Rolling up post views failed, resuming from the last committed chunk", e);
+        }
+    }
+
+    // Returns whether there may be more to do in this pass
+    private boolean rollupChunk() {
+        Map<String, Object> state = jdbcTemplate.queryForMap(
+                "SELECT last_id, pending_max_id FROM view_rollup_state WHERE name = :name FOR UPDATE",
+                Map.of("name", STATE_NAME));
+        long lastId = ((Number) state.get("last_id")).longValue();
+        long pendingMaxId = ((Number) state.get("pending_max_id")).longValue();
+
+        if (lastId >= pendingMaxId) {
+            // Pass complete: the next one reads up to what exists now
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM post_views", Map.of(),
+                    Long.class);
+            updateState(lastId, Math.max(maxId, lastId));
+            return false;
+        }
+
+        List<ViewRow> rows = jdbcTemplate.query(
+                "SELECT id, post_id, user_id, created_at FROM post_views " +
+                        "WHERE id > :lastId AND id <= :maxId ORDER BY id LIMIT :limit",
+                Map.of("lastId", lastId, "maxId", pendingMaxId, "limit", properties.getRollupChunkSize()),
+                (row, rowNum) -> new ViewRow(row.getLong(1), row.getLong(2), row.getObject(3) != null,
+                        row.getTimestamp(4).toLocalDateTime()));
+        if (rows.isEmpty()) {
+            updateState(pendingMaxId, pendingMaxId);
+            return true;
+        }
+
+        Map<BucketKey, long[]> hourly = new HashMap<>();
+        Map<BucketKey, long[]> daily = new HashMap<>();
+        for (ViewRow row : rows) {
+            add(hourly, new BucketKey(row.getPostId(), row.getViewedAt().truncatedTo(ChronoUnit.HOURS)), row);
+            add(daily, new BucketKey(row.getPostId(), row.getViewedAt().truncatedTo(ChronoUnit.DAYS)), row);
+        }
+        upsert("INSERT INTO post_view_stats_hourly (post_id, bucket_start, views, signed_in_views) " +
+                "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views), " +
+                "signed_in_views = signed_in_views + VALUES(signed_in_views)", hourly, false);
+        upsert("INSERT INTO post_view_stats_daily (post_id, view_date, views, signed_in_views) " +
+                "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views), " +
+                "signed_in_views = signed_in_views + VALUES(signed_in_views)", daily, true);
+        updateState(rows.get(rows.size() - 1).getId(), pendingMaxId);
+        return true;
+    }
+
+    private static void add(Map<BucketKey, long[]> buckets, BucketKey key, ViewRow row) {
+        long[] counts = buckets.computeIfAbsent(key, k -> new long[2]);
+        counts[0]++;
+        if (row.isSignedIn()) {
+            counts[1]++;
+        }
+    }
+
+    private void upsert(String sql, Map<BucketKey, long[]> buckets, boolean daily) {
+        // Sorted so concurrent writers lock rollup rows in the same order
+        List<Object[]> rows = buckets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(BucketKey::getPostId)
+                        .thenComparing(BucketKey::getStart)))
+                .map(bucket -> new Object[] {
+                        bucket.getKey().getPostId(),
+                        daily ? Date.valueOf(bucket.getKey().getStart().toLocalDate())
+                                : Timestamp.valueOf(bucket.getKey().getStart()),
+                        bucket.getValue()[0],
+                        bucket.getValue()[1] })
+                .collect(Collectors.toList());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(sql, rows);
+    }
+
+    private void updateState(long lastId, long pendingMaxId) {
+        jdbcTemplate.update("UPDATE view_rollup_state SET last_id = :lastId, pending_max_id = :maxId, " +
+                "updated_at = :now WHERE name = :name",
+                Map.of("lastId", lastId, "maxId", pendingMaxId, "now", now(), "name", STATE_NAME));
+    }
+
+    @Scheduled(fixedDelayString = "${app.view-stats.prune-interval:PT1M}")
+    public void prune() {
+        try {
+            long rawRows = pruneRawViews();
+            long hourlyRows = pruneHourlyStats();
+            if (rawRows > 0 || hourlyRows > 0) {
+                log.info("Pruned {} raw post views and {} hourly view buckets", rawRows, hourlyRows);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Pruning post views failed, retrying on the next run", e);
+        }
+    }
+
+    private long pruneRawViews() throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRawRetention());
+        long deleted = 0;
+        for (int i = 0; i < properties.getPruneMaxBatches(); i++) {
+            List<Long> watermark = jdbcTemplate.queryForList(
+                    "SELECT last_id FROM view_rollup_state WHERE name = :name", Map.of("name", STATE_NAME), Long.class);
+            if (watermark.isEmpty()) {
+                break;
+            }
+            List<ViewRow> rows = jdbcTemplate.query(
+                    "SELECT id, post_id, user_id, created_at FROM post_views WHERE id <= :lastId ORDER BY id LIMIT :limit",
+                    Map.of("lastId", watermark.get(0), "limit", properties.getPruneBatchSize()),
+                    (row, rowNum) -> new ViewRow(row.getLong(1), row.getLong(2), row.getObject(3) != null,
+                            row.getTimestamp(4).toLocalDateTime()));
+
+            // Ids follow view time, so the first row inside the window ends the walk
+            List<ViewRow> expired = new ArrayList<>();
+            for (ViewRow row : rows) {
+                if (!row.getViewedAt().isBefore(cutoff)) {
+                    break;
+                }
+                expired.add(row);
+            }
+            if (expired.isEmpty()) {
+                break;
+            }
+
+            Set<Long> postIds = expired.stream().map(ViewRow::getPostId).collect(Collectors.toSet());
+            Set<Long> stored = viewSketchService.ensureStored(postIds);
+            List<Long> ids = expired.stream()
+                    .filter(row -> stored.contains(row.getPostId()))
+                    .map(ViewRow::getId)
+                    .collect(Collectors.toList());
+            if (!ids.isEmpty()) {
+                deleted += jdbcTemplate.update("DELETE FROM post_views WHERE id IN (:ids)", Map.of("ids", ids));
+            }
+            if (ids.size() < expired.size() || expired.size() < properties.getPruneBatchSize()) {
+                // Reached the window, the end of the rolled-up rows, or rows whose sketch could not be stored
+                break;
+            }
+            Thread.sleep(properties.getPrunePause().toMillis());
+        }
+        return deleted;
+    }
+
+    private long pruneHourlyStats() throws InterruptedException {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getHourlyRetention())
+                .truncatedTo(ChronoUnit.HOURS));
+        long deleted = 0;
+        for (int i = 0; i < properties.getPruneMaxBatches(); i++) {
+            int batch = jdbcTemplate.update("DELETE FROM post_view_stats_hourly WHERE bucket_start < :cutoff LIMIT :limit",
+                    Map.of("cutoff", cutoff, "limit", properties.getPruneBatchSize()));
+            deleted += batch;
+            if (batch < properties.getPruneBatchSize()) {
+                break;
+            }
+            Thread.sleep(properties.getPrunePause().toMillis());
+        }
+        return deleted;
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class ViewRow {
+        private long id;
+        private long postId;
+        private boolean signedIn;
+        private LocalDateTime viewedAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class BucketKey {
+        private Long postId;
+        // Start of the hour, or midnight for daily buckets
+        private LocalDateTime start;
+    }
+}
@@ -0,0 +1,87 @@
+package com.server.server.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque cursors: {@code (timestamp, id)} pairs, or
+ * a single string key.
+ */
+public class CursorUtils {
+
+    // Largest page a keyset listing returns
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Clamps a requested page size to 1..{@link #MAX_PAGE_SIZE}, so a negative or
+     * huge size never reaches {@code PageRequest.of(0, size + 1)}.
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    public static String encode(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor; a missing cursor means the first page, positioned just
+     * above the newest possible row.
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(LocalDateTime.now().plusDays(1), Long.MAX_VALUE);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Decodes a cursor for an ascending scan; a missing cursor means the first
+     * page, positioned just below the oldest possible row.
+     */
+    public static Cursor decodeAscending(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+        }
+        return decode(cursor);
+    }
+
+    /**
+     * Opaque cursor over a single string sort key, such as a comment path.
+     */
+    public static String encodeKey(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeKey(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Cursor {
+        private LocalDateTime timestamp;
+        private Long id;
+    }
+}
@@ -0,0 +1,25 @@
+package com.server.server.util;
+
+import java.nio.charset.StandardCharsets;
+
+public class HashUtils {
+
+    /**
+     * 64-bit hash of a string: FNV-1a over the UTF-8 bytes followed by the
+     * MurmurHash3 finaliser, which spreads the bits well enough for Bloom filter
+     * indexes and HyperLogLog registers. Not for security use.
+     */
+    public static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,59 @@
+package com.server.server.util;
+
+import com.server.server.dto.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Conditional GET helpers: answer If-None-Match / If-Modified-Since with 304
+ * before the response body is loaded, mapped or serialized.
+ */
+public class HttpCacheUtils {
+
+    // Clients and proxies may store the response but must revalidate it on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    /**
+     * Builds a strong ETag from the given parts. Timestamps are truncated to
+     * seconds, the precision the database keeps, so a validator computed from a
+     * freshly saved entity matches one read back later.
+     */
+    public static String etag(Object... parts) {
+        return Arrays.stream(parts)
+                .map(part -> part instanceof LocalDateTime time
+                        ? String.valueOf(toEpochMillis(time) / 1000)
+                        : String.valueOf(part))
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * Returns 304 when the request's validators match {@code version}, otherwise
+     * 200 with the supplied body. A null version (resource not found) skips the
+     * check so the supplier can raise the usual error.
+     */
+    public static <T> ResponseEntity<T> conditional(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        if (version != null) {
+            long lastModified = version.getLastModified() != null
+                    ? toEpochMillis(version.getLastModified().truncatedTo(ChronoUnit.SECONDS))
+                    : -1;
+            // Also writes the ETag and Last-Modified headers onto the response
+            if (request.checkNotModified(version.getEtag(), lastModified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+            }
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body.get());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,222 @@
+package com.server.server.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter that grows with its input instead of degrading: when the newest
+ * stage is full, a stage with twice the capacity and half the false-positive
+ * rate is added. Membership is checked against every stage, so nothing is
+ * forgotten, and the compound false-positive rate stays below the configured
+ * one (p/2 + p/4 + ...). Not thread-safe.
+ *
+ * Growth stops at {@code maxBytes}: once another stage would not fit, further
+ * entries go into the last stage, whose false-positive rate then rises with its
+ * load instead of the filter growing without bound.
+ */
+public class ScalableBloomFilter {
+
+    private static final int FORMAT = 1;
+    private static final double TIGHTENING = 0.5;
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    // Serialized header, then per stage: capacity, count, rate, hashes, word count
+    private static final int HEADER_BYTES = 1 + 8 + 4;
+    private static final int STAGE_HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final List<Stage> stages = new ArrayList<>();
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate, long maxBytes) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        Stage first = new Stage(Math.max(initialCapacity, 16), falsePositiveRate * TIGHTENING);
+        while (first.capacity > 16 && HEADER_BYTES + first.sizeInBytes() > maxBytes) {
+            first = new Stage(first.capacity / 2, first.falsePositiveRate);
+        }
+        stages.add(first);
+    }
+
+    private ScalableBloomFilter(double falsePositiveRate, long maxBytes) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean mightContain(long hash) {
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(long hash) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last.count >= last.capacity && last.capacity <= Integer.MAX_VALUE / 2) {
+            Stage next = new Stage(last.capacity * 2, last.falsePositiveRate * TIGHTENING);
+            if (sizeInBytes() + next.sizeInBytes() <= maxBytes) {
+                stages.add(next);
+                last = next;
+            }
+        }
+        last.put(hash);
+    }
+
+    /**
+     * Adds every entry of {@code other} (a copy of the same filter written
+     * elsewhere). A stage is OR-ed into one of the same geometry, keeping the
+     * larger count, so merging a filter into itself changes nothing; stages
+     * without a match are appended while they fit.
+     */
+    public void merge(ScalableBloomFilter other) {
+        for (Stage theirs : other.stages) {
+            Stage match = null;
+            for (Stage ours : stages) {
+                if (ours.sameGeometry(theirs)) {
+                    match = ours;
+                    break;
+                }
+            }
+            if (match != null) {
+                match.or(theirs);
+            } else if (sizeInBytes() + theirs.sizeInBytes() <= maxBytes) {
+                stages.add(theirs.copy());
+            }
+        }
+    }
+
+    public long sizeInBytes() {
+        long size = HEADER_BYTES;
+        for (Stage stage : stages) {
+            size += stage.sizeInBytes();
+        }
+        return size;
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT);
+            out.writeDouble(falsePositiveRate);
+            out.writeInt(stages.size());
+            for (Stage stage : stages) {
+                out.writeInt(stage.capacity);
+                out.writeInt(stage.count);
+                out.writeDouble(stage.falsePositiveRate);
+                out.writeInt(stage.hashes);
+                out.writeInt(stage.bits.length);
+                for (long word : stage.bits) {
+                    out.writeLong(word);
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ScalableBloomFilter fromBytes(byte[] data, long maxBytes) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readByte() != FORMAT) {
+                throw new IllegalArgumentException("Unknown Bloom filter format");
+            }
+            ScalableBloomFilter filter = new ScalableBloomFilter(in.readDouble(), maxBytes);
+            int stageCount = in.readInt();
+            for (int i = 0; i < stageCount; i++) {
+                int capacity = in.readInt();
+                int count = in.readInt();
+                double falsePositiveRate = in.readDouble();
+                int hashes = in.readInt();
+                long[] bits = new long[in.readInt()];
+                for (int w = 0; w < bits.length; w++) {
+                    bits[w] = in.readLong();
+                }
+                filter.stages.add(new Stage(capacity, count, falsePositiveRate, hashes, bits));
+            }
+            return filter;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Stage {
+        private final int capacity;
+        private final double falsePositiveRate;
+        private final int hashes;
+        private final long[] bits;
+        private final long bitCount;
+        private int count;
+
+        Stage(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / LN2_SQUARED);
+            this.bits = new long[(int) ((optimalBits + 63) / 64)];
+            this.bitCount = bits.length * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        Stage(int capacity, int count, double falsePositiveRate, int hashes, long[] bits) {
+            this.capacity = capacity;
+            this.count = count;
+            this.falsePositiveRate = falsePositiveRate;
+            this.hashes = hashes;
+            this.bits = bits;
+            this.bitCount = bits.length * 64L;
+        }
+
+        long sizeInBytes() {
+            return STAGE_HEADER_BYTES + bits.length * 8L;
+        }
+
+        boolean sameGeometry(Stage other) {
+            return capacity == other.capacity && hashes == other.hashes && bits.length == other.bits.length;
+        }
+
+        void or(Stage other) {
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] |= other.bits[w];
+            }
+            count = Math.max(count, other.count);
+        }
+
+        Stage copy() {
+            return new Stage(capacity, count, falsePositiveRate, hashes, bits.clone());
+        }
+
+        // Kirsch-Mitzenmacher: k indexes from the two 32-bit halves of one 64-bit hash
+        private long index(long hash, int i) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            return (h1 + i * h2) % bitCount;
+        }
+
+        boolean mightContain(long hash) {
+            for (int i = 0; i < hashes; i++) {
+                long index = index(hash, i);
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash) {
+            for (int i = 0; i < hashes; i++) {
+                long index = index(hash, i);
+                bits[(int) (index >>> 6)] |= 1L << index;
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- V19: Indexes backing keyset (cursor) pagination
+-- Each index matches a (filter..., sort timestamp, id) scan so deep pages are a range read.
+CREATE INDEX idx_posts_status_published ON posts(status, published_at, id);
+CREATE INDEX idx_posts_category_status_published ON posts(category_id, status, published_at, id);
+CREATE INDEX idx_posts_author_created ON posts(author_id, created_at, id);
+CREATE INDEX idx_bookmarks_user_created ON bookmarks(user_id, created_at, post_id);
@@ -0,0 +1,22 @@
+-- V20: Move post bodies into a 1:1 post_bodies table
+-- Keeps the hot posts row (counters, status, listing columns) narrow so it stays
+-- buffer-pool resident; bodies are read only for detail views and writes.
+CREATE TABLE post_bodies (
+    post_id BIGINT PRIMARY KEY,
+    content_md TEXT,
+    content_html TEXT,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+INSERT INTO post_bodies (post_id, content_md, content_html)
+SELECT id, content_md, content_html FROM posts;
+
+-- The V12 FULLTEXT index spans title and bodies; split it along with the data
+DROP INDEX idx_fulltext_posts ON posts;
+
+ALTER TABLE posts
+DROP COLUMN content_md,
+DROP COLUMN content_html;
+
+CREATE FULLTEXT INDEX idx_fulltext_posts_title ON posts(title);
+CREATE FULLTEXT INDEX idx_fulltext_post_bodies ON post_bodies(content_md, content_html);
@@ -0,0 +1,10 @@
+-- V21: Metadata derived by the write-time Markdown render stage
+-- content_hash is the SHA-256 of content_md at the last render, so edits that do
+-- not change the body skip re-rendering; NULL marks bodies the backfill must render.
+ALTER TABLE post_bodies
+ADD COLUMN content_hash CHAR(64) NULL;
+
+ALTER TABLE posts
+ADD COLUMN word_count INT NOT NULL DEFAULT 0,
+ADD COLUMN reading_time_minutes INT NOT NULL DEFAULT 0,
+ADD COLUMN summary_generated BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,10 @@
+-- V22: Track modification time on categories and tags
+-- Drives the ETag / Last-Modified validators on the category and tag read endpoints.
+ALTER TABLE categories
+ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+ALTER TABLE tags
+ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE categories SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP);
+UPDATE tags SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP);
@@ -0,0 +1,17 @@
+-- V23: Materialized trending scores
+-- One row per recently published post, maintained by TrendingScoreService. The
+-- counter snapshot records what the score was computed from, so the periodic
+-- reconcile pass can find posts whose counters moved without rescoring all of them.
+CREATE TABLE post_trending_score (
+    post_id BIGINT PRIMARY KEY,
+    score DOUBLE NOT NULL,
+    published_at TIMESTAMP NOT NULL,
+    views BIGINT NOT NULL,
+    likes_count INT NOT NULL,
+    comments_count INT NOT NULL,
+    bookmarks_count INT NOT NULL,
+    computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_trending_score (score, post_id),
+    INDEX idx_trending_published (published_at)
+);
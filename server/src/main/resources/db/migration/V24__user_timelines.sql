@@ -0,0 +1,24 @@
+-- V24: Fan-out-on-write home timelines
+-- user_timelines holds, per reader, the ids of published posts by followed authors,
+-- pushed when a post is published. The feed becomes one range scan on
+-- idx_timeline_user_published instead of a join over follows and posts.
+CREATE TABLE user_timelines (
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    published_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, post_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_timeline_user_published (user_id, published_at, post_id),
+    INDEX idx_timeline_user_author (user_id, author_id),
+    INDEX idx_timeline_post (post_id)
+);
+
+-- Users whose timeline has been built; everyone else is served by the join query
+-- until their timeline is materialized on first read
+CREATE TABLE user_timeline_state (
+    user_id BIGINT PRIMARY KEY,
+    materialized_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
@@ -0,0 +1,13 @@
+-- V25: Precomputed similar posts
+-- Top-N neighbours per published post, written by SimilarPostsService. Reads are a
+-- primary-key range on (post_id, rank_no).
+CREATE TABLE post_similarities (
+    post_id BIGINT NOT NULL,
+    rank_no INT NOT NULL,
+    similar_post_id BIGINT NOT NULL,
+    score DOUBLE NOT NULL,
+    PRIMARY KEY (post_id, rank_no),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    FOREIGN KEY (similar_post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    INDEX idx_similarities_similar (similar_post_id)
+);
@@ -0,0 +1,12 @@
+-- V26: Per-post unique-viewer sketches
+-- A scalable Bloom filter answers "already counted?" for view dedup, and a
+-- HyperLogLog estimates unique visitors. Written periodically by ViewSketchService;
+-- unique_visitors is the estimate at that time, for detail reads of uncached posts.
+CREATE TABLE post_view_sketches (
+    post_id BIGINT NOT NULL PRIMARY KEY,
+    bloom MEDIUMBLOB NOT NULL,
+    hll BLOB NOT NULL,
+    unique_visitors BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
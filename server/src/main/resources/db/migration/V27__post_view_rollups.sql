@@ -0,0 +1,35 @@
+-- V27: Hourly/daily rollups of post_views
+-- Filled by ViewStatsService from the raw rows in id order; analytics read these
+-- tables, and raw rows older than the retention window are pruned once rolled up.
+CREATE TABLE post_view_stats_hourly (
+    post_id BIGINT NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    views BIGINT NOT NULL,
+    signed_in_views BIGINT NOT NULL,
+    PRIMARY KEY (post_id, bucket_start),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_view_stats_hourly_bucket ON post_view_stats_hourly(bucket_start);
+
+CREATE TABLE post_view_stats_daily (
+    post_id BIGINT NOT NULL,
+    view_date DATE NOT NULL,
+    views BIGINT NOT NULL,
+    signed_in_views BIGINT NOT NULL,
+    PRIMARY KEY (post_id, view_date),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_view_stats_daily_date ON post_view_stats_daily(view_date);
+
+-- Rollup progress: post_views ids up to last_id are counted. pending_max_id is the
+-- highest id seen at the end of the previous pass; only ids up to it are read, so
+-- rows from transactions still open at that time have committed. The row is
+-- created by the first pass.
+CREATE TABLE view_rollup_state (
+    name VARCHAR(50) NOT NULL PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    pending_max_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
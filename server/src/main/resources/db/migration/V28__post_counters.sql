@@ -0,0 +1,15 @@
+-- V28: Sharded post counters
+-- Pending deltas to the counter columns of posts, spread over several rows per
+-- post so concurrent writers do not queue on one row lock. Reads add the shards
+-- to the posts columns; PostCounterService folds them back into posts and zeroes
+-- the shards. Rows are created on a post's first sharded write and kept.
+CREATE TABLE post_counters (
+    post_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    likes_count INT NOT NULL DEFAULT 0,
+    comments_count INT NOT NULL DEFAULT 0,
+    bookmarks_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (post_id, shard),
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
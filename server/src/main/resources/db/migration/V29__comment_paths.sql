@@ -0,0 +1,48 @@
+-- V29: Materialized paths for threaded comments
+-- path is the chain of ancestor ids down to the comment itself, each zero-padded to
+-- ten digits and followed by '/', so sorting by path lists a thread depth-first in
+-- creation order and a comment's replies are the range just above its own path.
+-- root_id is the thread's top-level comment (null on top-level comments).
+ALTER TABLE comments
+    ADD COLUMN root_id BIGINT NULL AFTER parent_id,
+    ADD COLUMN depth INT NOT NULL DEFAULT 0 AFTER root_id,
+    ADD COLUMN path VARCHAR(2000) CHARACTER SET ascii NULL AFTER depth;
+
+-- Computed into a temporary table first: MySQL does not update a table from a
+-- subquery over that same table
+CREATE TEMPORARY TABLE comment_paths (
+    id BIGINT PRIMARY KEY,
+    root_id BIGINT NOT NULL,
+    depth INT NOT NULL,
+    path VARCHAR(2000) CHARACTER SET ascii NOT NULL
+);
+
+INSERT INTO comment_paths (id, root_id, depth, path)
+WITH RECURSIVE tree (id, root_id, depth, path) AS (
+    SELECT id, id, 0, CAST(CONCAT(LPAD(id, 10, '0'), '/') AS CHAR(2000) CHARACTER SET ascii)
+    FROM comments
+    WHERE parent_id IS NULL
+    UNION ALL
+    SELECT child.id, tree.root_id, tree.depth + 1, CONCAT(tree.path, LPAD(child.id, 10, '0'), '/')
+    FROM comments child
+    JOIN tree ON child.parent_id = tree.id
+)
+SELECT id, root_id, depth, path FROM tree;
+
+UPDATE comments c
+JOIN comment_paths t ON t.id = c.id
+SET c.root_id = IF(t.depth = 0, NULL, t.root_id),
+    c.depth = t.depth,
+    c.path = t.path,
+    c.updated_at = c.updated_at;
+
+DROP TEMPORARY TABLE comment_paths;
+
+ALTER TABLE comments
+    MODIFY COLUMN path VARCHAR(2000) CHARACTER SET ascii NOT NULL,
+    ADD CONSTRAINT fk_comments_root FOREIGN KEY (root_id) REFERENCES comments(id) ON DELETE CASCADE;
+
+-- Replies of a thread in path order: "first K replies" and "load more replies"
+CREATE INDEX idx_comments_root_path ON comments(root_id, path);
+-- Top-level threads of a post, oldest first, for keyset pagination
+CREATE INDEX idx_comments_post_depth_created ON comments(post_id, depth, created_at, id);
@@ -0,0 +1,12 @@
+-- V30: Coalesced notifications
+-- Likes, comments and follows for the same (recipient, type, entity) within a time
+-- window share one unread row: actor_id is the latest actor, actor_count counts the
+-- actors folded in and recent_actor_ids lists the latest few, newest first.
+ALTER TABLE notifications
+    ADD COLUMN actor_count INT NOT NULL DEFAULT 1,
+    ADD COLUMN recent_actor_ids VARCHAR(255) NULL;
+
+UPDATE notifications SET recent_actor_ids = CAST(actor_id AS CHAR) WHERE actor_id IS NOT NULL;
+
+-- Open groups of a batch's recipients: unread rows by recipient, newest first
+CREATE INDEX idx_notifications_unread_created ON notifications(recipient_id, is_read, created_at);
@@ -0,0 +1,15 @@
+-- V31: Unread notification counter on the user row
+-- Kept in step with notifications.is_read by the writes that change it, and
+-- reconciled against the rows in the background. Writes to it also set
+-- updated_at = updated_at, so counter changes do not read as profile edits.
+ALTER TABLE users ADD COLUMN unread_notifications INT NOT NULL DEFAULT 0;
+
+UPDATE users u
+JOIN (
+    SELECT recipient_id, COUNT(*) AS unread
+    FROM notifications
+    WHERE is_read = FALSE
+    GROUP BY recipient_id
+) n ON n.recipient_id = u.id
+SET u.unread_notifications = n.unread,
+    u.updated_at = u.updated_at;
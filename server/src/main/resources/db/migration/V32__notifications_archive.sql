@@ -0,0 +1,25 @@
+-- V32: Hot/cold split of notifications
+-- Read notifications past the retention window move from notifications to
+-- notifications_archive in small batches (NotificationArchiver), so the inbox
+-- queries only ever touch unread and recent rows. Range partitioning by month
+-- is not an option here: partitioned InnoDB tables cannot have foreign keys, and
+-- the partitioning column would have to be part of the id primary key.
+CREATE TABLE notifications_archive (
+    id BIGINT PRIMARY KEY,
+    recipient_id BIGINT NOT NULL,
+    actor_id BIGINT,
+    type VARCHAR(20) NOT NULL,
+    entity_id BIGINT,
+    message TEXT,
+    actor_count INT NOT NULL DEFAULT 1,
+    recent_actor_ids VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (recipient_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (actor_id) REFERENCES users(id) ON DELETE SET NULL,
+    INDEX idx_notifications_archive_recipient (recipient_id, created_at),
+    INDEX idx_notifications_archive_archived (archived_at)
+);
+
+-- Finds the next batch of read rows past the window without scanning unread ones
+CREATE INDEX idx_notifications_read_created ON notifications(is_read, created_at);
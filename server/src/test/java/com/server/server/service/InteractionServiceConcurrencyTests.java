@@ -0,0 +1,82 @@
+package com.server.server.service;
+
+import com.server.server.domain.Post;
+import com.server.server.domain.User;
+import com.server.server.repository.LikeRepository;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.UserRepository;
+import com.server.server.support.ConcurrentRun;
+import com.server.server.support.TestFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many users toggling the like of one post at the same moment: every toggle must
+ * succeed (no deadlock or lock timeout) and the counter must match the rows.
+ */
+@Slf4j
+@SpringBootTest
+class InteractionServiceConcurrencyTests {
+
+    private static final int LIKERS = 500;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    private TestFixtures fixtures;
+    private List<User> likers;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, postRepository);
+        post = fixtures.newPost(fixtures.newUser("author"), "Concurrent likes");
+        likers = fixtures.newUsers("liker", LIKERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void parallelLikesAndUnlikesKeepExactCounts() throws Exception {
+        ConcurrentRun likes = ConcurrentRun.run(THREADS, toggles());
+        log.info("Parallel likes: {}", likes);
+        assertEquals(LIKERS, likes.completed());
+        assertEquals(LIKERS, interactionService.getInteractionStatus(post.getId(), null).getLikesCount());
+        assertEquals(LIKERS, likeRepository.countByPostId(post.getId()));
+
+        ConcurrentRun unlikes = ConcurrentRun.run(THREADS, toggles());
+        log.info("Parallel unlikes: {}", unlikes);
+        assertEquals(LIKERS, unlikes.completed());
+        assertEquals(0, interactionService.getInteractionStatus(post.getId(), null).getLikesCount());
+        assertEquals(0, likeRepository.countByPostId(post.getId()));
+    }
+
+    private List<Callable<?>> toggles() {
+        return likers.stream()
+                .map(liker -> (Callable<?>) () -> interactionService.toggleLike(post.getId(), liker.getId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package com.server.server.service;
+
+import com.server.server.domain.Post;
+import com.server.server.domain.User;
+import com.server.server.repository.BookmarkRepository;
+import com.server.server.repository.LikeRepository;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.UserRepository;
+import com.server.server.support.ConcurrentRun;
+import com.server.server.support.TestFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent likes and bookmarks on one post, run once per counter mode by the
+ * subclasses (each boots its own context with {@code app.counters.mode} set, so
+ * the scheduled compaction never sees the mode change under it). Logs throughput
+ * and toggle latency; asserts that no toggle fails and no update is lost, before
+ * and after compaction.
+ */
+@Slf4j
+abstract class PostCounterBenchmarkSupport {
+
+    private static final int USERS = 300;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @Autowired
+    private PostCounterService postCounterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    private TestFixtures fixtures;
+    private List<User> users;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, postRepository);
+        post = fixtures.newPost(fixtures.newUser("bench-author"), "Counter benchmark");
+        users = fixtures.newUsers("bench-user", USERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void countersStayExactUnderContention() throws Exception {
+        List<Callable<?>> toggles = new ArrayList<>();
+        for (User user : users) {
+            toggles.add(() -> interactionService.toggleLike(post.getId(), user.getId()));
+            toggles.add(() -> interactionService.toggleBookmark(post.getId(), user.getId()));
+        }
+        ConcurrentRun run = ConcurrentRun.run(THREADS, toggles);
+        log.info("{}: {}", getClass().getSimpleName(), run);
+
+        assertEquals(2 * USERS, run.completed());
+        assertEquals(USERS, likeRepository.countByPostId(post.getId()));
+        assertEquals(USERS, bookmarkRepository.countByPostId(post.getId()));
+        var status = interactionService.getInteractionStatus(post.getId(), null);
+        assertEquals(USERS, status.getLikesCount());
+        assertEquals(USERS, status.getBookmarksCount());
+
+        postCounterService.compact();
+        Post compacted = postRepository.findById(post.getId()).orElseThrow();
+        assertEquals(USERS, compacted.getLikesCount());
+        assertEquals(USERS, compacted.getBookmarksCount());
+    }
+}
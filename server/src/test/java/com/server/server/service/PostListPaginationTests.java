@@ -0,0 +1,152 @@
+package com.server.server.service;
+
+import com.server.server.domain.PostStatus;
+import com.server.server.domain.Tag;
+import com.server.server.domain.User;
+import com.server.server.dto.post.PostListDto;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.TagRepository;
+import com.server.server.repository.UserRepository;
+import com.server.server.support.StatementCounter;
+import com.server.server.support.TestFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Post lists over a large table: every page, near or deep, of any size, must be
+ * sliced in SQL (Hibernate would throw on in-memory pagination of the tags
+ * fetch) and take the same number of statements.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.query.fail_on_pagination_over_collection_fetch=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.server.server.support.StatementCounter"
+})
+class PostListPaginationTests {
+
+    private static final int POSTS = 100_000;
+    private static final int TAGS = 20;
+    private static final int INSERT_BATCH = 5_000;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestFixtures fixtures;
+    private User author;
+    private final List<Tag> tags = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, postRepository);
+        author = fixtures.newUser("pager");
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag();
+            tag.setName("pager-" + author.getId() + "-" + i);
+            tag.setSlug(tag.getName());
+            tags.add(tagRepository.save(tag));
+        }
+        insertPosts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM post_tags WHERE post_id IN (SELECT id FROM posts WHERE author_id = ?)",
+                author.getId());
+        jdbcTemplate.update("DELETE FROM posts WHERE author_id = ?", author.getId());
+        tagRepository.deleteAll(tags);
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void listsPageInSqlWithConstantStatements() {
+        String tagSlug = tags.get(0).getSlug();
+        String username = author.getUsername();
+        assertConstantStatements("public", pageable -> postService.getPublicPosts(pageable));
+        assertConstantStatements("tag",
+                pageable -> postService.getPostsByTagSlug(tagSlug, PostStatus.PUBLISHED, pageable));
+        assertConstantStatements("author",
+                pageable -> postService.getPostsByAuthorUsername(username, PostStatus.PUBLISHED, pageable));
+    }
+
+    private void assertConstantStatements(String list, Function<Pageable, Page<PostListDto>> loader) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "publishedAt");
+        // Also warms any per-list caches, so every measured page starts from the same state
+        long total = loader.apply(PageRequest.of(0, 10, sort)).getTotalElements();
+        assertTrue(total > 1_000, list + " list has only " + total + " posts");
+
+        Set<Integer> statementCounts = new HashSet<>();
+        for (int size : new int[] { 10, 50 }) {
+            int last = (int) ((total - 1) / size);
+            for (int page : new int[] { 0, 1, last / 2, last }) {
+                StatementCounter.reset();
+                long started = System.nanoTime();
+                Page<PostListDto> result = loader.apply(PageRequest.of(page, size, sort));
+                double millis = (System.nanoTime() - started) / 1e6;
+                int statements = StatementCounter.count();
+                log.info("{} list, page {} of size {}: {} statements, {} ms", list, page, size, statements,
+                        String.format("%.1f", millis));
+
+                assertEquals(total, result.getTotalElements());
+                assertEquals(page < last ? size : total - (long) last * size, result.getContent().size());
+                assertFalse(result.getContent().get(0).getTags().isEmpty());
+                statementCounts.add(statements);
+            }
+        }
+        assertEquals(1, statementCounts.size(), "statements per page differ: " + statementCounts);
+    }
+
+    private void insertPosts() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String run = author.getUsername();
+        for (int from = 0; from < POSTS; from += INSERT_BATCH) {
+            List<Object[]> posts = new ArrayList<>();
+            for (int i = from; i < Math.min(POSTS, from + INSERT_BATCH); i++) {
+                Timestamp publishedAt = Timestamp.valueOf(now.toLocalDateTime().minusSeconds(i));
+                posts.add(new Object[] { author.getId(), "Post " + i, run + "-" + i, publishedAt, now, now });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO posts (author_id, title, slug, summary_generated, word_count, " +
+                    "reading_time_minutes, status, views, likes_count, comments_count, bookmarks_count, " +
+                    "published_at, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, FALSE, 0, 0, 'PUBLISHED', 0, 0, 0, 0, ?, ?, ?)", posts);
+        }
+        // Two tags per post
+        for (int t = 0; t < TAGS; t++) {
+            jdbcTemplate.update("INSERT INTO post_tags (post_id, tag_id) " +
+                    "SELECT id, ? FROM posts WHERE author_id = ? AND MOD(id, ?) IN (?, ?)",
+                    tags.get(t).getId(), author.getId(), TAGS, t, (t + 1) % TAGS);
+        }
+    }
+}
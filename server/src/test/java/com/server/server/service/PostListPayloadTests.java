@@ -0,0 +1,147 @@
+package com.server.server.service;
+
+import com.server.server.domain.Post;
+import com.server.server.domain.PostStatus;
+import com.server.server.domain.User;
+import com.server.server.dto.post.PostListDto;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.UserRepository;
+import com.server.server.support.StatementCounter;
+import com.server.server.support.TestFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes a list page reads from the database, before and after list projections.
+ * Before, a page loaded full post entities: the posts row with both body columns
+ * (they lived on posts until V20), its author, category and tags. After, it reads
+ * the {@link PostRepository#findListDtosByIdIn projection} columns and the batched
+ * tag rows. Both are re-run here as plain SQL over the same page of long posts
+ * and their result sets summed column by column; the list itself must never
+ * touch post bodies.
+ */
+@Slf4j
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.server.server.support.StatementCounter")
+class PostListPayloadTests {
+
+    private static final int POSTS = 20;
+    private static final int BODY_CHARS = 20_000;
+
+    // The entity graph the list used to load for each post
+    private static final String ENTITY_PAGE_SQL =
+            "SELECT p.*, b.content_md, b.content_html, u.*, c.*, t.* FROM posts p " +
+            "LEFT JOIN post_bodies b ON b.post_id = p.id " +
+            "JOIN users u ON u.id = p.author_id " +
+            "LEFT JOIN categories c ON c.id = p.category_id " +
+            "LEFT JOIN post_tags pt ON pt.post_id = p.id " +
+            "LEFT JOIN tags t ON t.id = pt.tag_id " +
+            "WHERE p.id IN (:ids)";
+
+    // Same columns as PostRepository.findListDtosByIdIn
+    private static final String PROJECTION_PAGE_SQL =
+            "SELECT p.id, u.username, u.display_name, u.avatar_url, c.name, p.title, p.summary, p.slug, " +
+            "p.cover_image_url, p.status, p.views, p.likes_count, p.comments_count, p.bookmarks_count, " +
+            "p.reading_time_minutes, p.published_at, p.created_at FROM posts p " +
+            "JOIN users u ON u.id = p.author_id " +
+            "LEFT JOIN categories c ON c.id = p.category_id " +
+            "WHERE p.id IN (:ids)";
+
+    // Same columns as PostRepository.findTagRowsByPostIdIn
+    private static final String TAG_ROWS_SQL =
+            "SELECT pt.post_id, t.id, t.name, t.slug, t.description FROM post_tags pt " +
+            "JOIN tags t ON t.id = pt.tag_id WHERE pt.post_id IN (:ids)";
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestFixtures fixtures;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, postRepository);
+        author = fixtures.newUser("payload");
+        String markdown = "word ".repeat(BODY_CHARS / 5);
+        String html = "<p>" + markdown + "</p>";
+        for (int i = 0; i < POSTS; i++) {
+            Post post = fixtures.newPost(author, "Long post");
+            jdbcTemplate.update("INSERT INTO post_bodies (post_id, content_md, content_html) VALUES (?, ?, ?)",
+                    post.getId(), markdown, html);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void listPageReadsFarFewerBytesThanEntities() {
+        StatementCounter.reset();
+        Page<PostListDto> page = postService.getPostsByAuthorUsername(author.getUsername(), PostStatus.PUBLISHED,
+                PageRequest.of(0, POSTS, Sort.by(Sort.Direction.DESC, "publishedAt")));
+        List<String> statements = StatementCounter.statements();
+
+        List<Long> ids = page.getContent().stream().map(PostListDto::getId).toList();
+        long before = bytesRead(ENTITY_PAGE_SQL, ids);
+        long after = bytesRead(PROJECTION_PAGE_SQL, ids) + bytesRead(TAG_ROWS_SQL, ids);
+        log.info("Page of {} posts read {} bytes as entities ({} per post), {} bytes as projections ({} per post)",
+                POSTS, before, before / POSTS, after, after / POSTS);
+
+        assertEquals(POSTS, page.getContent().size());
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains("post_bodies")),
+                "list read post bodies: " + statements);
+        assertTrue(before > (long) POSTS * BODY_CHARS, "entity page read only " + before + " bytes");
+        assertTrue(after * 20 < before, "projection page read " + after + " of " + before + " bytes");
+    }
+
+    // Sums the values of every row and column: strings as UTF-8, anything else at 8 bytes
+    private long bytesRead(String sql, List<Long> ids) {
+        long[] bytes = {0};
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, Map.of("ids", ids), rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int column = 1; column <= meta.getColumnCount(); column++) {
+                Object value = rs.getObject(column);
+                if (value instanceof Clob) {
+                    value = rs.getString(column);
+                }
+                if (value instanceof String text) {
+                    bytes[0] += text.getBytes(StandardCharsets.UTF_8).length;
+                } else if (value instanceof byte[] raw) {
+                    bytes[0] += raw.length;
+                } else if (value != null) {
+                    bytes[0] += 8;
+                }
+            }
+        });
+        return bytes[0];
+    }
+}
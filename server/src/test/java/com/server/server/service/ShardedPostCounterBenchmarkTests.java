@@ -0,0 +1,7 @@
+package com.server.server.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "app.counters.mode=sharded")
+class ShardedPostCounterBenchmarkTests extends PostCounterBenchmarkSupport {
+}
@@ -0,0 +1,77 @@
+package com.server.server.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a set of tasks on a fixed pool, all released at the same moment, and
+ * records how long each took. Any failed task fails the run.
+ */
+public final class ConcurrentRun {
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private final long elapsedNanos;
+    // Sorted ascending
+    private final List<Long> latencies;
+
+    private ConcurrentRun(long elapsedNanos, List<Long> latencies) {
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+    }
+
+    public static ConcurrentRun run(int threads, List<? extends Callable<?>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<?> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    task.call();
+                    latencies.add(System.nanoTime() - begin);
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Rethrows any failed task
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - startedAt;
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new ConcurrentRun(elapsed, sorted);
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    public int completed() {
+        return latencies.size();
+    }
+
+    public double percentileMillis(int percentile) {
+        return latencies.get(Math.min(latencies.size() - 1, latencies.size() * percentile / 100)) / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%d tasks in %.2f s (%.0f/s), p50 %.1f ms, p99 %.1f ms",
+                completed(), seconds, completed() / seconds, percentileMillis(50), percentileMillis(99));
+    }
+}
@@ -0,0 +1,70 @@
+package com.server.server.support;
+
+import com.server.server.domain.Post;
+import com.server.server.domain.PostStatus;
+import com.server.server.domain.User;
+import com.server.server.repository.PostRepository;
+import com.server.server.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Users and posts for tests that run against the real database. Names carry a
+ * per-fixture run id so parallel or leftover data never collides, and
+ * {@link #cleanUp()} removes everything the fixture created.
+ */
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final String run = UUID.randomUUID().toString().substring(0, 8);
+    private final List<User> users = new ArrayList<>();
+    private final List<Post> posts = new ArrayList<>();
+
+    public TestFixtures(UserRepository userRepository, PostRepository postRepository) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+    }
+
+    public User newUser(String label) {
+        return newUsers(label, 1).get(0);
+    }
+
+    public List<User> newUsers(String label, int count) {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String username = label + "-" + run + "-" + i;
+            created.add(User.builder()
+                    .username(username)
+                    .email(username + "@example.test")
+                    .passwordHash("x")
+                    .build());
+        }
+        created = userRepository.saveAll(created);
+        users.addAll(created);
+        return created;
+    }
+
+    public Post newPost(User author, String label) {
+        Post post = new Post();
+        post.setAuthor(author);
+        post.setTitle(label + " " + run);
+        post.setSlug(label.toLowerCase().replace(' ', '-') + "-" + run + "-" + posts.size());
+        post.setStatus(PostStatus.PUBLISHED);
+        post.setPublishedAt(LocalDateTime.now());
+        post = postRepository.save(post);
+        posts.add(post);
+        return post;
+    }
+
+    // Posts first: their likes, bookmarks and counters reference the users
+    public void cleanUp() {
+        posts.forEach(post -> postRepository.deleteById(post.getId()));
+        posts.clear();
+        userRepository.deleteAll(users);
+        users.clear();
+    }
+}